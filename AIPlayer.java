@@ -1,3 +1,6 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -9,7 +12,19 @@ public abstract class AIPlayer extends Player {
     public static void registerAllAIPlayers() {
         registerAIPlayerType("RandomAI", RandomAI.class);
         registerAIPlayerType("GreedyAI", GreedyAI.class);
+        registerAIPlayerType("AlphaBetaAI", AlphaBetaAI.class);
+        registerAIPlayerType("MonteCarloAI", MonteCarloAI.class);
         // Add more AIPlayer subclasses here as needed
+
+        // Load the opening book named by the reversi.openingBook system property, if any
+        String book = System.getProperty("reversi.openingBook");
+        if (book != null && openingBook == null) {
+            try {
+                setOpeningBook(OpeningBook.open(Path.of(book)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open opening book " + book, e);
+            }
+        }
     }
 
     @Override
@@ -20,6 +35,12 @@ public abstract class AIPlayer extends Player {
     // Map of AI player types and their corresponding classes
     private static final Map<String, Class<? extends AIPlayer>> aiPlayerRegistry = new HashMap<>();
 
+    // Opening book shared by all AI players, null if there is none
+    private static volatile OpeningBook openingBook;
+
+    // The thread searching while the opponent thinks, null if not pondering
+    private Thread ponderThread;
+
     public AIPlayer(boolean isPlayerOne) {
         super(isPlayerOne);
     }
@@ -48,4 +69,142 @@ public abstract class AIPlayer extends Player {
     }
 
     public abstract Move makeMove(PlayableLogic gameStatus);
+
+    /**
+     * Calls {@link #makeMove}, recording its latency when engine metrics are
+     * enabled (see {@link EngineMetrics}).
+     */
+    public final Move timedMove(PlayableLogic gameStatus) {
+        if (!EngineMetrics.ENABLED)
+            return makeMove(gameStatus);
+        long start = System.nanoTime();
+        Move move = makeMove(gameStatus);
+        EngineMetrics.makeMove.record(System.nanoTime() - start);
+        return move;
+    }
+
+    /**
+     * Starts thinking in the background while the opponent is to move, so that
+     * the reply to the opponent's move comes faster. The given game must not
+     * change while pondering; pass a copy. Pondering stops at the next
+     * {@link #makeMove} or {@link #stopPondering}. The default does nothing.
+     */
+    public void ponder(PlayableLogic gameStatus) {
+    }
+
+    /**
+     * Stops pondering, and waits for the background search to finish.
+     */
+    public void stopPondering() {
+        Thread thread;
+        synchronized (this) {
+            thread = ponderThread;
+            ponderThread = null;
+        }
+        if (thread == null)
+            return;
+        // The searches treat an interrupt of their thread like an expired deadline
+        thread.interrupt();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Runs search on a new background thread, after stopping any earlier
+     * pondering. For use by {@link #ponder} implementations.
+     */
+    protected void startPondering(Runnable search) {
+        stopPondering();
+        Thread thread = new Thread(search, getClass().getSimpleName() + " ponder");
+        thread.setDaemon(true);
+        synchronized (this) {
+            ponderThread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Sets the opening book consulted by {@link #bookMove}, or null for none.
+     */
+    public static void setOpeningBook(OpeningBook book) {
+        openingBook = book;
+    }
+
+    public static OpeningBook getOpeningBook() {
+        return openingBook;
+    }
+
+    /**
+     * Looks the current position up in the opening book.
+     *
+     * @return the book move, or null if there is no book, the position is not in
+     *         it, or the book move is not legal here.
+     */
+    protected Move bookMove(PlayableLogic gameStatus) {
+        OpeningBook book = openingBook;
+        if (book == null || gameStatus.getBoardSize() != BitBoard.SIZE)
+            return null;
+        long key;
+        if (gameStatus instanceof GameLogic) {
+            key = ((GameLogic) gameStatus).getZobristKey();
+        } else if (gameStatus instanceof BitboardLogic) {
+            key = ((BitboardLogic) gameStatus).getBitBoard().getKey();
+        } else {
+            return null;
+        }
+        int move = book.lookup(key);
+        if (move < 0)
+            return null;
+
+        // Guard against key collisions: the move must be playable here
+        int type = BitBoard.moveType(move);
+        if ((type == BitBoard.BOMB && getNumber_of_bombs() <= 0)
+                || (type == BitBoard.UNFLIPPABLE && getNumber_of_unflippedable() <= 0))
+            return null;
+        int row = BitBoard.moveSquare(move) / BitBoard.SIZE;
+        int col = BitBoard.moveSquare(move) % BitBoard.SIZE;
+        List<Position> validMoves = gameStatus.ValidMoves();
+        for (int i = 0; i < validMoves.size(); i++) {
+            Position position = validMoves.get(i);
+            if (position.row() == row && position.col() == col)
+                return new Move(this, createDisc(type), position);
+        }
+        return null;
+    }
+
+    /**
+     * Plays a simple disc on the square flipping the most discs. The search AIs
+     * fall back to this on boards other than the 8x8 board they search on.
+     *
+     * @return the move, or null if there is no legal move.
+     */
+    protected Move greedyMove(PlayableLogic gameStatus) {
+        List<Position> validMoves = gameStatus.ValidMoves();
+        Position best = null;
+        int bestFlips = -1;
+        for (int i = 0; i < validMoves.size(); i++) {
+            int flips = gameStatus.countFlips(validMoves.get(i));
+            if (flips > bestFlips) {
+                bestFlips = flips;
+                best = validMoves.get(i);
+            }
+        }
+        return best == null ? null : new Move(this, SimpleDisc.of(this), best);
+    }
+
+    /**
+     * Gets this player's disc of the given type code (see {@link BitBoard#SIMPLE}).
+     */
+    protected Disc createDisc(int type) {
+        return getDisc(type);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,539 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An AI player that searches the game tree with negamax, alpha-beta pruning and
+ * iterative deepening, within a per-move time budget and an optional node
+ * budget. Every legal square is tried with each disc type the player still has,
+ * so the search also decides when to spend bombs and unflippable discs.
+ * <p>
+ * The search runs on a private {@link BitBoard} using in-place play/undo, and
+ * remembers results in a {@link TranspositionTable} across moves. With more
+ * than one search thread it runs Lazy SMP: every thread searches the same root
+ * on its own board copy, helpers start one ply deeper on odd ids, and they all
+ * share the lock-free table, so helpers mostly speed up the main thread by
+ * filling it. The thread count and time budget default to the
+ * {@code reversi.searchThreads} and {@code reversi.searchMillis} system
+ * properties. Positions in the opening book are played from the book without
+ * searching.
+ * <p>
+ * With at most {@code reversi.endgameEmpties} (default 12) empty squares left,
+ * the move comes from the exact {@link EndgameSolver} instead, given half the
+ * time budget; if it cannot finish in time, the normal search takes over.
+ * The search only runs on the standard 8x8 board; on other sizes the player
+ * makes the greedy move.
+ * <p>
+ * While the opponent thinks, {@link #ponder} keeps searching the opponent's
+ * position; if the opponent then plays any move the ponder search covered, the
+ * reply plays the table's move when the ponder search got as deep as the last
+ * search, and otherwise stops early at the depth the table already holds.
+ */
+public class AlphaBetaAI extends AIPlayer {
+    static final int WIN = 1_000_000;
+    static final int INFINITY = 2 * WIN;
+    private static final int MAX_PLY = BitBoard.SQUARES;
+    private static final int MAX_MOVES = BitBoard.SQUARES * 3;
+
+    private static final long CORNERS = 0x8100000000000081L;
+    private static final long X_SQUARES = 0x0042000000004200L;
+    private static final long C_SQUARES = 0x4281000000008142L;
+    private static final long EDGES = 0xFF818181818181FFL & ~CORNERS & ~C_SQUARES;
+
+    private final BitBoard board = new BitBoard();
+    private final TranspositionTable table = new TranspositionTable(19);
+    private final EndgameSolver solver = new EndgameSolver(16);
+
+    private long timeBudgetMillis = Long.getLong("reversi.searchMillis", 500);
+    private long nodeBudget = Long.MAX_VALUE;
+    private int depthLimit = MAX_PLY;
+    private int endgameEmpties = Integer.getInteger("reversi.endgameEmpties", 12);
+    private int threads = Math.max(1, Integer.getInteger("reversi.searchThreads", 1));
+    private Searcher[] searchers;
+    private ExecutorService helpers;
+
+    private long deadline;
+    // Interrupting this thread stops the search, as when a GUI cancels a pending move
+    private Thread searchThread;
+    private final AtomicLong sharedNodes = new AtomicLong();
+    private volatile boolean stopped;
+    // The main thread stops after completing this depth
+    private int stopDepth;
+
+    // Pondering: the positions after each of the opponent's moves in the pondered
+    // position, and the depth the ponder search completed there
+    private final long[] ponderKeys = new long[MAX_MOVES];
+    private int ponderKeyCount;
+    private int ponderDepth;
+    // The depth reached by the last search of a move we played
+    private int playedDepth;
+
+    private int lastDepth;
+    private int lastScore;
+    private long lastNodes;
+    private long lastNanos;
+    private boolean lastSolved;
+
+    public AlphaBetaAI(boolean isPlayerOne) {
+        super(isPlayerOne);
+    }
+
+    @Override
+    public Move makeMove(PlayableLogic gameStatus) {
+        stopPondering();
+        if (gameStatus.ValidMoves().isEmpty()) {
+            return null; // No move possible
+        }
+        if (gameStatus.getBoardSize() != BitBoard.SIZE)
+            return greedyMove(gameStatus);
+        Move bookMove = bookMove(gameStatus);
+        if (bookMove != null)
+            return bookMove;
+        board.load(gameStatus);
+
+        // On a ponder hit the table already holds this position. If it was searched at
+        // least as deep as our last search got, play the stored move; otherwise stop
+        // once the depth it holds is completed again, never going deeper than our last
+        // search did, as long as the ponder search got at least that deep
+        int target = Integer.MAX_VALUE;
+        int best = -1;
+        if (playedDepth > 0 && isPonderHit(board.getKey())) {
+            best = storedMove(playedDepth);
+            if (best < 0 && ponderDepth >= playedDepth)
+                target = Math.min(ponderDepth - 1, playedDepth);
+        }
+        ponderKeyCount = 0;
+        if (best < 0) {
+            best = search(target);
+            // Only a search on the full budget tells how deep our searches get
+            if (!lastSolved && target == Integer.MAX_VALUE)
+                playedDepth = lastDepth;
+        }
+        int square = BitBoard.moveSquare(best);
+        return new Move(this, createDisc(BitBoard.moveType(best)),
+                Position.of(square / BitBoard.SIZE, square % BitBoard.SIZE));
+    }
+
+    /**
+     * Searches the opponent's position in the background until the opponent
+     * moves, without a time budget. The search fills the transposition table, so
+     * after the opponent's move the reply is found quickly.
+     */
+    @Override
+    public void ponder(PlayableLogic gameStatus) {
+        if (gameStatus.getBoardSize() != BitBoard.SIZE || gameStatus.ValidMoves().isEmpty())
+            return;
+        startPondering(() -> {
+            board.load(gameStatus);
+            ponderKeyCount = 0;
+            ponderDepth = 0;
+            int side = board.getSideToMove();
+            for (long legal = board.legalMoves(); legal != 0; legal &= legal - 1) {
+                int square = Long.numberOfTrailingZeros(legal);
+                for (int type = BitBoard.SIMPLE; type <= BitBoard.UNFLIPPABLE; type++) {
+                    if (!board.canPlay(type, side))
+                        continue;
+                    board.play(square, type);
+                    ponderKeys[ponderKeyCount++] = board.getKey();
+                    board.undo();
+                }
+            }
+            long start = System.nanoTime();
+            iterativeDeepening(start, Long.MAX_VALUE, Integer.MAX_VALUE);
+            ponderDepth = lastDepth;
+        });
+    }
+
+    // The table's move for the loaded position if it was searched to at least minDepth
+    // and the move is not a fail-low guess, or -1; sets the last search info from the entry
+    private int storedMove(int minDepth) {
+        long entry = table.probe(board.getKey());
+        if (entry == 0 || TranspositionTable.depth(entry) < minDepth
+                || TranspositionTable.bound(entry) == TranspositionTable.UPPER)
+            return -1;
+        int move = TranspositionTable.move(entry);
+        // Guard against key collisions: the move must be playable here
+        if (move < 0 || (board.legalMoves() & (1L << BitBoard.moveSquare(move))) == 0
+                || !board.canPlay(BitBoard.moveType(move), board.getSideToMove()))
+            return -1;
+        lastSolved = false;
+        lastDepth = TranspositionTable.depth(entry);
+        lastScore = TranspositionTable.score(entry);
+        lastNodes = 0;
+        lastNanos = 0;
+        return move;
+    }
+
+    private boolean isPonderHit(long key) {
+        for (int i = 0; i < ponderKeyCount; i++) {
+            if (ponderKeys[i] == key)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Searches the given position, leaving it unchanged, and returns the chosen
+     * move code (see {@link BitBoard#move}), or -1 if the side to move has no
+     * legal move, that is, the game is over.
+     */
+    public int searchPosition(BitBoard position) {
+        board.copyFrom(position);
+        return search();
+    }
+
+    /**
+     * Searches the loaded position with iterative deepening until the budget runs
+     * out, and returns the best move of the deepest completed iteration.
+     */
+    int search() {
+        return search(Integer.MAX_VALUE);
+    }
+
+    private int search(int targetDepth) {
+        if (board.legalMoves() == 0) {
+            // The game is over: its result is exact and there is no move to choose
+            lastSolved = true;
+            lastDepth = 0;
+            lastScore = finalScore(board);
+            lastNodes = 0;
+            lastNanos = 0;
+            return -1;
+        }
+        long start = System.nanoTime();
+        int empties = BitBoard.SQUARES - Long.bitCount(board.discs(0) | board.discs(1));
+        if (empties <= endgameEmpties) {
+            int move = solver.solve(board, start + timeBudgetMillis * 500_000L, nodeBudget);
+            if (move >= 0) {
+                lastSolved = true;
+                lastDepth = empties;
+                lastScore = solver.getLastScore();
+                lastNodes = solver.getLastNodes();
+                lastNanos = solver.getLastSolveNanos();
+                if (EngineMetrics.ENABLED)
+                    EngineMetrics.recordSearch(lastNodes, lastNanos);
+                return move;
+            }
+        }
+        lastSolved = false;
+        return iterativeDeepening(start, start + timeBudgetMillis * 1_000_000L, targetDepth);
+    }
+
+    // Runs the Lazy SMP search of the loaded position until the deadline, or until the
+    // main thread completes targetDepth, and returns the best move found
+    private int iterativeDeepening(long start, long deadline, int targetDepth) {
+        searchThread = Thread.currentThread();
+        this.deadline = deadline;
+        stopDepth = targetDepth;
+        sharedNodes.set(0);
+        stopped = false;
+        if (searchers == null || searchers.length != threads)
+            createSearchers();
+
+        Future<?>[] running = new Future<?>[threads];
+        for (int id = 0; id < threads; id++) {
+            searchers[id].board.copyFrom(board);
+            searchers[id].nodes = 0;
+        }
+        for (int id = 1; id < threads; id++) {
+            Searcher helper = searchers[id];
+            running[id] = helpers.submit(() -> helper.iterate());
+        }
+        Searcher main = searchers[0];
+        main.iterate();
+        stopped = true;
+
+        long nodes = main.nodes;
+        boolean interrupted = false;
+        for (int id = 1; id < threads; id++) {
+            while (true) {
+                try {
+                    running[id].get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (Exception e) {
+                    throw new RuntimeException("Search thread failed", e);
+                }
+            }
+            nodes += searchers[id].nodes;
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        lastDepth = main.completedDepth;
+        lastScore = main.completedScore;
+        lastNodes = nodes;
+        lastNanos = System.nanoTime() - start;
+        if (EngineMetrics.ENABLED)
+            EngineMetrics.recordSearch(lastNodes, lastNanos);
+        return main.completedMove;
+    }
+
+    private void createSearchers() {
+        if (helpers != null)
+            helpers.shutdownNow();
+        searchers = new Searcher[threads];
+        for (int id = 0; id < threads; id++)
+            searchers[id] = new Searcher(id);
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "AlphaBetaAI helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * One search thread's private state: its own board copy and move buffers.
+     */
+    private final class Searcher {
+        private final int id;
+        private final BitBoard board = new BitBoard();
+        private final int[][] moves = new int[MAX_PLY][MAX_MOVES];
+        private final int[][] order = new int[MAX_PLY][MAX_MOVES];
+        private long nodes;
+        private int rootBest;
+        private int completedDepth;
+        private int completedScore;
+        private int completedMove;
+
+        Searcher(int id) {
+            this.id = id;
+        }
+
+        void iterate() {
+            // Fall back to any legal move if not even depth 1 completes, -1 if there is none
+            long legal = board.legalMoves();
+            completedMove = legal == 0 ? -1 : BitBoard.move(Long.numberOfTrailingZeros(legal), BitBoard.SIMPLE);
+            completedDepth = 0;
+            completedScore = 0;
+            int empties = 64 - Long.bitCount(board.discs(0) | board.discs(1));
+            int maxDepth = legal == 0 ? 0 : Math.min(empties, depthLimit);
+            for (int depth = 1 + (id & 1); depth <= maxDepth; depth++) {
+                int score = negamax(depth, 0, -INFINITY, INFINITY);
+                if (stopped)
+                    return;
+                completedMove = rootBest;
+                completedScore = score;
+                completedDepth = depth;
+                if (id == 0 && depth >= stopDepth) {
+                    stopped = true;
+                    return;
+                }
+            }
+        }
+
+        private int negamax(int depth, int ply, int alpha, int beta) {
+            if ((++nodes & 1023) == 0 && (System.nanoTime() > deadline
+                    || sharedNodes.addAndGet(1024) >= nodeBudget || searchThread.isInterrupted()))
+                stopped = true;
+            if (stopped)
+                return 0;
+
+            long legal = board.legalMoves();
+            if (legal == 0)
+                return finalScore(board);
+            if (depth == 0)
+                return evaluate(board, legal);
+
+            long key = board.getKey();
+            int alphaOrig = alpha;
+            int ttMove = -1;
+            long entry = table.probe(key);
+            if (entry != 0) {
+                ttMove = TranspositionTable.move(entry);
+                if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                    int score = TranspositionTable.score(entry);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT)
+                        return score;
+                    if (bound == TranspositionTable.LOWER)
+                        alpha = Math.max(alpha, score);
+                    else
+                        beta = Math.min(beta, score);
+                    if (alpha >= beta)
+                        return score;
+                }
+            }
+
+            int count = generateMoves(legal, ply, ttMove);
+            int best = -INFINITY;
+            int bestMove = -1;
+            for (int i = 0; i < count; i++) {
+                int move = nextMove(ply, i, count);
+                board.play(BitBoard.moveSquare(move), BitBoard.moveType(move));
+                int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+                board.undo();
+                if (stopped)
+                    return 0;
+                if (score > best) {
+                    best = score;
+                    bestMove = move;
+                    if (ply == 0)
+                        rootBest = move;
+                }
+                if (score > alpha)
+                    alpha = score;
+                if (alpha >= beta)
+                    break;
+            }
+
+            int bound = best <= alphaOrig ? TranspositionTable.UPPER
+                    : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(key, depth, bound, best, bestMove);
+            return best;
+        }
+
+        // Fills moves[ply] with every (square, disc type) pair the side to move may play
+        private int generateMoves(long legal, int ply, int ttMove) {
+            int side = board.getSideToMove();
+            int count = 0;
+            for (long bits = legal; bits != 0; bits &= bits - 1) {
+                int square = Long.numberOfTrailingZeros(bits);
+                int squareScore = squareScore(1L << square);
+                for (int type = BitBoard.SIMPLE; type <= BitBoard.UNFLIPPABLE; type++) {
+                    if (!board.canPlay(type, side))
+                        continue;
+                    int move = BitBoard.move(square, type);
+                    moves[ply][count] = move;
+                    // Prefer the remembered best move, then good squares, then keeping special discs
+                    order[ply][count] = (move == ttMove ? 1 << 20 : 0) + squareScore - type;
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        // Selection sort step: swaps the best remaining move into slot i
+        private int nextMove(int ply, int i, int count) {
+            int[] m = moves[ply];
+            int[] o = order[ply];
+            int best = i;
+            for (int j = i + 1; j < count; j++) {
+                if (o[j] > o[best])
+                    best = j;
+            }
+            int move = m[best];
+            m[best] = m[i];
+            m[i] = move;
+            int score = o[best];
+            o[best] = o[i];
+            o[i] = score;
+            return move;
+        }
+    }
+
+    private static int squareScore(long square) {
+        if ((square & CORNERS) != 0)
+            return 100;
+        if ((square & X_SQUARES) != 0)
+            return -50;
+        if ((square & C_SQUARES) != 0)
+            return -20;
+        if ((square & EDGES) != 0)
+            return 10;
+        return 0;
+    }
+
+    /**
+     * Exact result of a finished game from the side to move's point of view. As in
+     * GameLogic.isGameFinished, player 1 wins a draw.
+     */
+    static int finalScore(BitBoard board) {
+        int diff = board.count(0) - board.count(1);
+        int firstPlayerScore = (diff >= 0 ? WIN : -WIN) + diff;
+        return board.getSideToMove() == 0 ? firstPlayerScore : -firstPlayerScore;
+    }
+
+    // Heuristic score from the side to move's point of view
+    static int evaluate(BitBoard board, long ownMoves) {
+        int side = board.getSideToMove();
+        long own = board.discs(side);
+        long opp = board.discs(side ^ 1);
+        long empty = ~(own | opp);
+        long oppMoves = board.legalMoves(side ^ 1);
+        // X and C squares only hurt while the corner next to them is still empty
+        long risky = BitBoard.neighbours(CORNERS & empty);
+
+        int score = 30 * (Long.bitCount(own & CORNERS) - Long.bitCount(opp & CORNERS));
+        score -= 12 * (Long.bitCount(own & risky & X_SQUARES) - Long.bitCount(opp & risky & X_SQUARES));
+        score -= 5 * (Long.bitCount(own & risky & C_SQUARES) - Long.bitCount(opp & risky & C_SQUARES));
+        score += 2 * (Long.bitCount(own & EDGES) - Long.bitCount(opp & EDGES));
+        score += 4 * (Long.bitCount(ownMoves) - Long.bitCount(oppMoves));
+        score += 2 * (Long.bitCount(own & board.unflippables()) - Long.bitCount(opp & board.unflippables()));
+        score += 3 * (board.getBombsLeft(side) - board.getBombsLeft(side ^ 1));
+        score += 4 * (board.getUnflippablesLeft(side) - board.getUnflippablesLeft(side ^ 1));
+        score += Long.bitCount(own) - Long.bitCount(opp);
+        return score;
+    }
+
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * Sets the number of threads searching each move. One thread is the
+     * plain sequential search.
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Limits the iterative deepening to a fixed depth, on top of the budgets.
+     */
+    public void setDepthLimit(int depthLimit) {
+        this.depthLimit = depthLimit;
+    }
+
+    /**
+     * Sets the number of empty squares at or below which moves are solved
+     * exactly; 0 turns the endgame solver off.
+     */
+    public void setEndgameEmpties(int endgameEmpties) {
+        this.endgameEmpties = endgameEmpties;
+    }
+
+    /**
+     * Limits the number of nodes searched per move, on top of the time budget.
+     */
+    public void setNodeBudget(long nodeBudget) {
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * Gets the depth of the last completed iteration of the previous search.
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    public long getLastNodesPerSecond() {
+        return lastNanos == 0 ? 0 : lastNodes * 1_000_000_000L / lastNanos;
+    }
+
+    /**
+     * Tells whether the previous move was solved exactly; the last score is then
+     * the final disc differential.
+     */
+    public boolean wasLastSolved() {
+        return lastSolved;
+    }
+
+    public String getLastSearchInfo() {
+        if (lastSolved) {
+            return String.format("solved %d empties in %.1f ms, disc differential %d, %d nodes", lastDepth,
+                    lastNanos / 1e6, lastScore, lastNodes);
+        }
+        return String.format("depth %d, score %d, %d nodes, %d nodes/s", lastDepth, lastScore, lastNodes,
+                getLastNodesPerSecond());
+    }
+}
@@ -0,0 +1,699 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless position-analysis service. It keeps a warmed-up engine in memory
+ * and answers batches of 8x8 positions over HTTP on the loopback interface, so
+ * tools can query the engine without starting a JVM, or the GUI, per position.
+ * <p>
+ * {@code POST /analyze} takes a JSON object with a {@code positions} array and
+ * optional {@code millis} (search time per position) and {@code depth} (search
+ * depth limit). Each position has a {@code board} string in the notation of
+ * {@link BoardSnapshot#toString}, and optionally {@code turn} (1 or 2, default
+ * 1), {@code bombs} and {@code unflippables} (the two players' remaining
+ * special discs, default full) and {@code search} (false to skip the
+ * recommended move):
+ *
+ * <pre>
+ * {"millis": 50, "positions": [{"board": "...........................OX......XO...........................", "turn": 1}]}
+ * </pre>
+ *
+ * The answer holds one result per position, in order: the side to move, the
+ * disc counts, the game-over flag, every legal move with the number of discs
+ * it flips for each disc type the side to move can still play, and the
+ * recommended move, from the opening book or an {@link AlphaBetaAI} search,
+ * with its depth and score for the side to move. A position that cannot be
+ * read gets an {@code error} in its place. {@code GET /health} reports the
+ * engine pool.
+ * <p>
+ * Requests are handled on virtual threads when the JVM has them (Java 21 and
+ * later), otherwise on a fixed pool of platform threads. Each search borrows
+ * an engine from a bounded pool and returns it as soon as its position is
+ * done, so however many requests arrive, no more than that many searches run
+ * at once and a long batch does not hold an engine between its positions; a
+ * request that waits too long for an engine gets a 503.
+ * <p>
+ * {@code --verify} starts a server on a free port, runs a set of requests
+ * against it, malformed ones included, and prints whether each got the
+ * expected answer.
+ * <p>
+ * Usage: {@code java AnalysisServer [--port n] [--engines n] [--millis ms]
+ * [--book book] [--verify]}
+ */
+public class AnalysisServer {
+    private static final int DEFAULT_PORT = 8765;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+    private static final int MAX_POSITIONS = 1000;
+    private static final long MAX_MILLIS = 10_000;
+    private static final long ENGINE_WAIT_MILLIS = 10_000;
+    // Deeper JSON is refused rather than parsed on the request thread's stack
+    private static final int MAX_JSON_DEPTH = 64;
+    private static final String[] TYPE_NAMES = { "simple", "bomb", "unflippable" };
+
+    static {
+        // The JDK server writes the headers and the body separately, which with Nagle's
+        // algorithm and delayed acks stalls every keep-alive request for tens of ms. The
+        // setting is read once, when the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    // Idle engines; a request takes one out for each position it searches and puts it back after
+    private final BlockingQueue<AlphaBetaAI> engines;
+    private final int engineCount;
+    private final long defaultMillis;
+
+    /**
+     * Creates a server on the loopback interface with the given number of search
+     * engines, each searching a position for defaultMillis unless a request asks
+     * otherwise. The engines are warmed up before this returns.
+     *
+     * @param port The port to listen on, 0 for any free port.
+     */
+    public AnalysisServer(int port, int engineCount, long defaultMillis) throws IOException {
+        this.engineCount = Math.max(1, engineCount);
+        this.defaultMillis = defaultMillis;
+        this.engines = new ArrayBlockingQueue<>(this.engineCount);
+        for (int i = 0; i < this.engineCount; i++) {
+            AlphaBetaAI engine = new AlphaBetaAI(true);
+            engine.setThreads(1);
+            engines.add(engine);
+        }
+        warmUp();
+
+        this.executor = newRequestExecutor(4 * Runtime.getRuntime().availableProcessors());
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext("/analyze", exchange -> handle(exchange, this::analyze));
+        server.createContext("/health", exchange -> handle(exchange, this::health));
+    }
+
+    // Virtual threads where available (Java 21+), looked up reflectively so the
+    // server still runs on older JVMs, with a bounded platform pool as the fallback
+    private static ExecutorService newRequestExecutor(int fallbackThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(fallbackThreads, runnable -> {
+                Thread thread = new Thread(runnable, "analysis");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // Runs every engine through a few short searches, so the JIT has compiled the
+    // search and the tables are touched before the first request
+    private void warmUp() {
+        BitBoard board = new BitBoard();
+        for (AlphaBetaAI engine : engines) {
+            engine.setTimeBudgetMillis(20);
+            for (int ply = 0; ply < 8 && board.legalMoves() != 0; ply++) {
+                int move = engine.searchPosition(board);
+                board.play(BitBoard.moveSquare(move), BitBoard.moveType(move));
+            }
+            board.reset();
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, gives the running ones a second to finish and
+     * shuts the request threads down.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = DEFAULT_PORT;
+        int engineCount = Runtime.getRuntime().availableProcessors();
+        long millis = 100;
+        boolean verify = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--engines":
+                    engineCount = Integer.parseInt(args[++i]);
+                    break;
+                case "--millis":
+                    millis = Long.parseLong(args[++i]);
+                    break;
+                case "--book":
+                    // Loaded by AIPlayer.registerAllAIPlayers
+                    System.setProperty("reversi.openingBook", args[++i]);
+                    break;
+                case "--verify":
+                    verify = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        AIPlayer.registerAllAIPlayers();
+        if (verify) {
+            if (!verify())
+                System.exit(1);
+            return;
+        }
+        AnalysisServer server = new AnalysisServer(port, engineCount, millis);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        server.start();
+        System.out.printf("Analysing on http://%s:%d/analyze with %d engines%n",
+                InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), engineCount);
+    }
+
+    // Runs the checks of --verify against a server on a free port; true if all pass
+    private static boolean verify() throws IOException, InterruptedException {
+        String start = "...........................OX......XO...........................";
+        AnalysisServer server = new AnalysisServer(0, 2, 20);
+        server.start();
+        HttpClient client = HttpClient.newHttpClient();
+        URI analyze = URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                + server.getPort() + "/analyze");
+        URI health = analyze.resolve("/health");
+        boolean passed = true;
+        try {
+            HttpResponse<String> batch = post(client, analyze, "{\"positions\":[{\"board\":\"" + start
+                    + "\"},{\"board\":\"" + start + "\",\"search\":false},{\"board\":\"XO\"},{\"board\":\""
+                    + "X".repeat(BitBoard.SQUARES) + "\"}]}");
+            String body = batch.body();
+            passed &= check("mixed batch", batch.statusCode() == 200
+                    && body.contains("\"source\":\"search\"") && body.contains("\"best\":null")
+                    && body.contains("\"error\"") && body.contains("\"gameOver\":true"), batch);
+            passed &= check("malformed body", expect(post(client, analyze, "{\"positions\":["), 400), null);
+            passed &= check("deep nesting", expect(post(client, analyze, "[".repeat(200_000)), 400), null);
+            passed &= check("bad millis", expect(post(client, analyze,
+                    "{\"millis\":0,\"positions\":[{\"board\":\"" + start + "\"}]}"), 400), null);
+            HttpResponse<String> get = client.send(HttpRequest.newBuilder(analyze).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            passed &= check("GET /analyze", expect(get, 405), get);
+
+            // More searching requests than engines: they all wait their turn instead of failing
+            ExecutorService clients = Executors.newFixedThreadPool(8);
+            List<Future<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(clients.submit(() -> post(client, analyze, "{\"positions\":[{\"board\":\""
+                        + start + "\"},{\"board\":\"" + start + "\",\"turn\":2}]}")));
+            }
+            boolean allOk = true;
+            for (Future<HttpResponse<String>> response : responses) {
+                try {
+                    allOk &= response.get().statusCode() == 200;
+                } catch (ExecutionException e) {
+                    allOk = false;
+                }
+            }
+            clients.shutdown();
+            passed &= check("concurrent searches", allOk, null);
+
+            HttpResponse<String> idle = client.send(HttpRequest.newBuilder(health).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            passed &= check("engines returned", expect(idle, 200) && idle.body().contains("\"idle\":2"), idle);
+        } finally {
+            server.stop();
+        }
+        System.out.println(passed ? "All checks passed" : "Some checks FAILED");
+        return passed;
+    }
+
+    private static HttpResponse<String> post(HttpClient client, URI uri, String json)
+            throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString(json)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static boolean expect(HttpResponse<String> response, int status) {
+        return response.statusCode() == status;
+    }
+
+    // Prints the check's outcome, with the response of a failed one when there is one to show
+    private static boolean check(String name, boolean ok, HttpResponse<String> response) {
+        System.out.printf("%-20s %s%n", name, ok ? "ok"
+                : "FAIL" + (response == null ? "" : " " + response.statusCode() + " " + response.body()));
+        return ok;
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException, InterruptedException;
+    }
+
+    // A failing request gets an error response instead of a dropped connection
+    private static void handle(HttpExchange exchange, Handler handler) {
+        try (exchange) {
+            try {
+                handler.handle(exchange);
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, error(e.getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                send(exchange, 503, error("The server is shutting down"));
+            } catch (RuntimeException e) {
+                send(exchange, 500, error(String.valueOf(e)));
+            }
+        } catch (IOException e) {
+            // The client went away; there is nobody left to tell
+        }
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        send(exchange, 200, String.format("{\"status\":\"ok\",\"engines\":%d,\"idle\":%d}", engineCount,
+                engines.size()));
+    }
+
+    private void analyze(HttpExchange exchange) throws IOException, InterruptedException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            send(exchange, 405, error("Use POST"));
+            return;
+        }
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            send(exchange, 413, error("The request is larger than " + MAX_BODY_BYTES + " bytes"));
+            return;
+        }
+
+        Map<?, ?> request = asObject(JsonReader.parse(new String(bytes, StandardCharsets.UTF_8)), "request");
+        List<?> positions = asArray(request.get("positions"), "positions");
+        if (positions.size() > MAX_POSITIONS)
+            throw new IllegalArgumentException("More than " + MAX_POSITIONS + " positions");
+        long millis = asInt(request.get("millis"), "millis", defaultMillis, 1, MAX_MILLIS);
+        int depth = (int) asInt(request.get("depth"), "depth", BitBoard.SQUARES, 1, BitBoard.SQUARES);
+
+        StringBuilder out = new StringBuilder(256 * positions.size() + 16).append("{\"results\":[");
+        BitBoard board = new BitBoard();
+        for (int i = 0; i < positions.size(); i++) {
+            if (i > 0)
+                out.append(',');
+            boolean search;
+            try {
+                Map<?, ?> position = asObject(positions.get(i), "position");
+                load(board, position);
+                search = asBoolean(position.get("search"), "search", true);
+            } catch (IllegalArgumentException e) {
+                out.append(error(e.getMessage()));
+                continue;
+            }
+            if (!search || board.legalMoves() == 0 || bookMove(board) >= 0) {
+                writeResult(out, board, null);
+                continue;
+            }
+            // Borrowed for this position only, so other requests get a turn between positions
+            AlphaBetaAI engine = engines.poll(ENGINE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            if (engine == null) {
+                send(exchange, 503, error("All engines are busy"));
+                return;
+            }
+            try {
+                engine.setTimeBudgetMillis(millis);
+                engine.setDepthLimit(depth);
+                writeResult(out, board, engine);
+            } finally {
+                engines.add(engine);
+            }
+        }
+        send(exchange, 200, out.append("]}").toString());
+    }
+
+    private static void load(BitBoard board, Map<?, ?> position) {
+        Object text = position.get("board");
+        if (!(text instanceof String))
+            throw new IllegalArgumentException("A position needs a board string");
+        int turn = (int) asInt(position.get("turn"), "turn", 1, 1, 2);
+        int[] bombs = asPair(position.get("bombs"), "bombs", Player.initial_number_of_bombs);
+        int[] unflippables = asPair(position.get("unflippables"), "unflippables",
+                Player.initial_number_of_unflippedable);
+        board.load((String) text, turn - 1, bombs, unflippables);
+    }
+
+    // The opening book's move for the position, or -1 if it has none that is playable here
+    private static int bookMove(BitBoard board) {
+        OpeningBook book = AIPlayer.getOpeningBook();
+        if (book == null)
+            return -1;
+        int move = book.lookup(board.getKey());
+        // Guard against key collisions: the move must be playable here
+        if (move < 0 || (board.legalMoves() & (1L << BitBoard.moveSquare(move))) == 0
+                || !board.canPlay(BitBoard.moveType(move), board.getSideToMove()))
+            return -1;
+        return move;
+    }
+
+    // Appends the analysis of the position; engine is null when no search is wanted
+    private static void writeResult(StringBuilder out, BitBoard board, AlphaBetaAI engine) {
+        int side = board.getSideToMove();
+        long legal = board.legalMoves();
+        out.append("{\"turn\":").append(side + 1)
+                .append(",\"discs\":[").append(board.count(0)).append(',').append(board.count(1))
+                .append("],\"key\":\"").append(Long.toHexString(board.getKey()))
+                .append("\",\"gameOver\":").append(legal == 0)
+                .append(",\"moves\":[");
+        for (long bits = legal; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            if (bits != legal)
+                out.append(',');
+            // The placed disc's type never changes what flips, only whether it can be placed
+            int flips = Long.bitCount(board.flips(square, side));
+            out.append("{\"row\":").append(square / BitBoard.SIZE).append(",\"col\":").append(square % BitBoard.SIZE)
+                    .append(",\"flips\":{");
+            for (int type = BitBoard.SIMPLE; type <= BitBoard.UNFLIPPABLE; type++) {
+                if (!board.canPlay(type, side))
+                    continue;
+                if (type != BitBoard.SIMPLE)
+                    out.append(',');
+                out.append('"').append(TYPE_NAMES[type]).append("\":").append(flips);
+            }
+            out.append("}}");
+        }
+        out.append("],\"best\":");
+
+        int move = legal == 0 ? -1 : bookMove(board);
+        if (move >= 0) {
+            writeMove(out, move).append(",\"source\":\"book\"}}");
+        } else if (legal != 0 && engine != null) {
+            move = engine.searchPosition(board);
+            writeMove(out, move).append(",\"source\":\"search\",\"depth\":").append(engine.getLastDepth())
+                    .append(",\"score\":").append(engine.getLastScore())
+                    .append(",\"solved\":").append(engine.wasLastSolved())
+                    .append(",\"nodes\":").append(engine.getLastNodes()).append("}}");
+        } else {
+            out.append("null}");
+        }
+    }
+
+    private static StringBuilder writeMove(StringBuilder out, int move) {
+        int square = BitBoard.moveSquare(move);
+        return out.append("{\"row\":").append(square / BitBoard.SIZE).append(",\"col\":")
+                .append(square % BitBoard.SIZE).append(",\"type\":\"").append(TYPE_NAMES[BitBoard.moveType(move)])
+                .append('"');
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    private static String quote(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\')
+                sb.append('\\').append(c);
+            else if (c < 0x20)
+                sb.append(String.format("\\u%04x", (int) c));
+            else
+                sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+
+    private static Map<?, ?> asObject(Object value, String name) {
+        if (!(value instanceof Map))
+            throw new IllegalArgumentException("The " + name + " must be a JSON object");
+        return (Map<?, ?>) value;
+    }
+
+    private static List<?> asArray(Object value, String name) {
+        if (!(value instanceof List))
+            throw new IllegalArgumentException("The " + name + " must be a JSON array");
+        return (List<?>) value;
+    }
+
+    private static long asInt(Object value, String name, long defaultValue, long min, long max) {
+        if (value == null)
+            return defaultValue;
+        if (!(value instanceof Long) || (Long) value < min || (Long) value > max)
+            throw new IllegalArgumentException("The " + name + " must be an integer from " + min + " to " + max);
+        return (Long) value;
+    }
+
+    private static boolean asBoolean(Object value, String name, boolean defaultValue) {
+        if (value == null)
+            return defaultValue;
+        if (!(value instanceof Boolean))
+            throw new IllegalArgumentException("The " + name + " must be true or false");
+        return (Boolean) value;
+    }
+
+    // Both players' counts, player 1 first, each from 0 to max
+    private static int[] asPair(Object value, String name, int max) {
+        if (value == null)
+            return new int[] { max, max };
+        List<?> list = asArray(value, name);
+        if (list.size() != 2)
+            throw new IllegalArgumentException("The " + name + " must hold one count per player");
+        return new int[] { (int) asInt(list.get(0), name, max, 0, max), (int) asInt(list.get(1), name, max, 0, max) };
+    }
+
+    /**
+     * A small JSON parser for request bodies. Objects become maps, arrays lists,
+     * integers {@code Long} and other numbers {@code Double}. Malformed input
+     * throws {@link IllegalArgumentException}.
+     */
+    private static final class JsonReader {
+        private final String text;
+        private int pos;
+        // The number of objects and arrays open around pos
+        private int depth;
+
+        private JsonReader(String text) {
+            this.text = text;
+        }
+
+        static Object parse(String text) {
+            JsonReader reader = new JsonReader(text);
+            Object value = reader.value();
+            reader.skipWhitespace();
+            if (reader.pos != text.length())
+                throw reader.error("Unexpected text after the JSON value");
+            return value;
+        }
+
+        private Object value() {
+            skipWhitespace();
+            if (pos == text.length())
+                throw error("Unexpected end of the JSON");
+            switch (text.charAt(pos)) {
+                case '{':
+                case '[':
+                    if (++depth > MAX_JSON_DEPTH)
+                        throw error("JSON nested deeper than " + MAX_JSON_DEPTH + " levels");
+                    Object nested = text.charAt(pos) == '{' ? object() : array();
+                    depth--;
+                    return nested;
+                case '"':
+                    return string();
+                case 't':
+                    return literal("true", Boolean.TRUE);
+                case 'f':
+                    return literal("false", Boolean.FALSE);
+                case 'n':
+                    return literal("null", null);
+                default:
+                    return number();
+            }
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return map;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"')
+                    throw error("Expected a member name");
+                String name = string();
+                skipWhitespace();
+                expect(':');
+                map.put(name, value());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                    continue;
+                }
+                expect('}');
+                return map;
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> list = new ArrayList<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return list;
+            }
+            while (true) {
+                list.add(value());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                    continue;
+                }
+                expect(']');
+                return list;
+            }
+        }
+
+        private String string() {
+            StringBuilder sb = new StringBuilder();
+            pos++;
+            while (true) {
+                if (pos == text.length())
+                    throw error("Unterminated string");
+                char c = text.charAt(pos++);
+                if (c == '"')
+                    return sb.toString();
+                if (c < 0x20)
+                    throw error("Control character in a string");
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos == text.length())
+                    throw error("Unterminated string");
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        sb.append(escaped);
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length())
+                            throw error("Bad \\u escape");
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Bad \\u escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        throw error("Bad escape \\" + escaped);
+                }
+            }
+        }
+
+        private Object literal(String word, Object value) {
+            if (!text.startsWith(word, pos))
+                throw error("Unexpected character");
+            pos += word.length();
+            return value;
+        }
+
+        private Object number() {
+            int start = pos;
+            boolean integral = true;
+            if (peek() == '-')
+                pos++;
+            while (Character.isDigit(peek()))
+                pos++;
+            if (peek() == '.') {
+                integral = false;
+                pos++;
+                while (Character.isDigit(peek()))
+                    pos++;
+            }
+            if (peek() == 'e' || peek() == 'E') {
+                integral = false;
+                pos++;
+                if (peek() == '+' || peek() == '-')
+                    pos++;
+                while (Character.isDigit(peek()))
+                    pos++;
+            }
+            String number = text.substring(start, pos);
+            try {
+                return integral ? (Object) Long.parseLong(number) : (Object) Double.parseDouble(number);
+            } catch (NumberFormatException e) {
+                pos = start;
+                throw error("Bad number");
+            }
+        }
+
+        // The current character, or 0 at the end of the text
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        private void expect(char c) {
+            if (peek() != c)
+                throw error("Expected '" + c + "'");
+            pos++;
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos)))
+                pos++;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at offset " + pos + " of the request");
+        }
+    }
+}
@@ -0,0 +1,478 @@
+/**
+ * A compact 8x8 Reversi board stored as a handful of {@code long} masks.
+ * Square {@code row * 8 + col} maps to bit {@code 1L << (row * 8 + col)}.
+ * <p>
+ * The rules are the same as {@link GameLogic#calculateNextMove}: a ray captures
+ * the opponent discs between the new disc and one of the mover's discs,
+ * opponent {@link UnflippableDisc}s are stepped over but never flipped, and every
+ * captured {@link BombDisc} flips all flippable opponent neighbours, chaining
+ * through further bombs. Side 0 is player 1, side 1 is player 2.
+ */
+public final class BitBoard {
+    public static final int SIZE = 8;
+    public static final int SQUARES = SIZE * SIZE;
+
+    // Disc type codes, in the order used everywhere a type is stored as a number
+    public static final int SIMPLE = 0;
+    public static final int BOMB = 1;
+    public static final int UNFLIPPABLE = 2;
+
+    private static final long NOT_COL_0 = 0xFEFEFEFEFEFEFEFEL;
+    private static final long NOT_COL_7 = 0x7F7F7F7F7F7F7F7FL;
+
+    // Same order as GameLogic.directions: N, S, W, E, NW, NE, SW, SE
+    private static final int[] SHIFTS = { -8, 8, -1, 1, -9, -7, 7, 9 };
+    private static final long[] WRAP_MASKS = {
+            -1L, -1L, NOT_COL_7, NOT_COL_0, NOT_COL_7, NOT_COL_0, NOT_COL_7, NOT_COL_0
+    };
+
+    private final long[] discs = new long[2];
+    private long bombs;
+    private long unflippables;
+    private int sideToMove;
+    private final int[] bombsLeft = new int[2];
+    private final int[] unflippablesLeft = new int[2];
+    private long key;
+
+    // Undo stack: flipped mask and move code per ply
+    private long[] undoFlips = new long[SQUARES];
+    private int[] undoMoves = new int[SQUARES];
+    private int ply;
+
+    public BitBoard() {
+        reset();
+    }
+
+    /**
+     * Puts the board back into the standard starting position with full
+     * special-disc inventories.
+     */
+    public void reset() {
+        discs[0] = bit(3, 3) | bit(4, 4);
+        discs[1] = bit(3, 4) | bit(4, 3);
+        bombs = 0;
+        unflippables = 0;
+        sideToMove = 0;
+        for (int side = 0; side < 2; side++) {
+            bombsLeft[side] = Player.initial_number_of_bombs;
+            unflippablesLeft[side] = Player.initial_number_of_unflippedable;
+        }
+        ply = 0;
+        key = computeKey();
+    }
+
+    /**
+     * Computes the Zobrist key of the current state from scratch.
+     */
+    public long computeKey() {
+        long k = Zobrist.sideToMove(sideToMove);
+        for (int side = 0; side < 2; side++) {
+            for (long bits = discs[side]; bits != 0; bits &= bits - 1) {
+                int square = Long.numberOfTrailingZeros(bits);
+                k ^= Zobrist.disc(side, typeAt(square), square);
+            }
+            k ^= Zobrist.bombs(side, bombsLeft[side]) ^ Zobrist.unflippables(side, unflippablesLeft[side]);
+        }
+        return k;
+    }
+
+    /**
+     * Replaces the state with the current position of any {@link PlayableLogic},
+     * including the side to move and both players' special-disc inventories.
+     * The undo history is cleared.
+     */
+    public void load(PlayableLogic game) {
+        discs[0] = 0;
+        discs[1] = 0;
+        bombs = 0;
+        unflippables = 0;
+        for (int square = 0; square < SQUARES; square++) {
+            Disc disc = game.getDiscAtPosition(Position.of(square / SIZE, square % SIZE));
+            if (disc == null)
+                continue;
+            long b = 1L << square;
+            discs[disc.getOwner().isPlayerOne() ? 0 : 1] |= b;
+            int type = typeOf(disc);
+            if (type == BOMB) {
+                bombs |= b;
+            } else if (type == UNFLIPPABLE) {
+                unflippables |= b;
+            }
+        }
+        sideToMove = game.isFirstPlayerTurn() ? 0 : 1;
+        loadInventory(0, game.getFirstPlayer());
+        loadInventory(1, game.getSecondPlayer());
+        ply = 0;
+        key = computeKey();
+    }
+
+    /**
+     * Replaces the state with an 8x8 {@link BoardSnapshot}, which unlike
+     * {@link #load(PlayableLogic)} may be done on any thread while the game goes
+     * on. The undo history is cleared.
+     *
+     * @throws IllegalArgumentException if the snapshot is not of an 8x8 board.
+     */
+    public void load(BoardSnapshot snapshot) {
+        if (snapshot.getBoardSize() != SIZE)
+            throw new IllegalArgumentException("Not an 8x8 board: " + snapshot.getBoardSize());
+        discs[0] = snapshot.word(BoardSnapshot.SIDE_0, 0);
+        discs[1] = snapshot.word(BoardSnapshot.SIDE_1, 0);
+        bombs = snapshot.word(BoardSnapshot.BOMBS, 0);
+        unflippables = snapshot.word(BoardSnapshot.UNFLIPPABLES, 0);
+        sideToMove = snapshot.getSideToMove();
+        for (int side = 0; side < 2; side++) {
+            bombsLeft[side] = Math.max(0, Math.min(Player.initial_number_of_bombs, snapshot.getBombsLeft(side)));
+            unflippablesLeft[side] = Math.max(0,
+                    Math.min(Player.initial_number_of_unflippedable, snapshot.getUnflippablesLeft(side)));
+        }
+        ply = 0;
+        key = computeKey();
+    }
+
+    /**
+     * Replaces the state with a position written as {@link BoardSnapshot#toString}
+     * draws it: 64 cells row by row, X, B and U for player 1's simple, bomb and
+     * unflippable discs, O, b and u for player 2's, and . or * for an empty square.
+     * Whitespace is ignored. The undo history is cleared.
+     *
+     * @param bombsLeft        Both sides' remaining bombs, side 0 first.
+     * @param unflippablesLeft Both sides' remaining unflippable discs.
+     * @throws IllegalArgumentException if the board is not 64 such cells or a
+     *                                  count is out of range.
+     */
+    public void load(String board, int sideToMove, int[] bombsLeft, int[] unflippablesLeft) {
+        long[] parsed = new long[2];
+        long parsedBombs = 0;
+        long parsedUnflippables = 0;
+        int square = 0;
+        for (int i = 0; i < board.length(); i++) {
+            char c = board.charAt(i);
+            if (Character.isWhitespace(c))
+                continue;
+            if (square == SQUARES)
+                throw new IllegalArgumentException("More than " + SQUARES + " cells on the board");
+            long b = 1L << square++;
+            switch (c) {
+                case '.':
+                case '*':
+                    break;
+                case 'X':
+                case 'O':
+                    parsed[c == 'X' ? 0 : 1] |= b;
+                    break;
+                case 'B':
+                case 'b':
+                    parsed[c == 'B' ? 0 : 1] |= b;
+                    parsedBombs |= b;
+                    break;
+                case 'U':
+                case 'u':
+                    parsed[c == 'U' ? 0 : 1] |= b;
+                    parsedUnflippables |= b;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown cell '" + c + "' on the board");
+            }
+        }
+        if (square != SQUARES)
+            throw new IllegalArgumentException("The board has " + square + " cells instead of " + SQUARES);
+        if (sideToMove != 0 && sideToMove != 1)
+            throw new IllegalArgumentException("No such side: " + sideToMove);
+        for (int side = 0; side < 2; side++) {
+            if (bombsLeft[side] < 0 || bombsLeft[side] > Player.initial_number_of_bombs)
+                throw new IllegalArgumentException("Bombs left out of range: " + bombsLeft[side]);
+            if (unflippablesLeft[side] < 0 || unflippablesLeft[side] > Player.initial_number_of_unflippedable)
+                throw new IllegalArgumentException("Unflippables left out of range: " + unflippablesLeft[side]);
+        }
+        discs[0] = parsed[0];
+        discs[1] = parsed[1];
+        bombs = parsedBombs;
+        unflippables = parsedUnflippables;
+        this.sideToMove = sideToMove;
+        for (int side = 0; side < 2; side++) {
+            this.bombsLeft[side] = bombsLeft[side];
+            this.unflippablesLeft[side] = unflippablesLeft[side];
+        }
+        ply = 0;
+        key = computeKey();
+    }
+
+    /**
+     * Replaces the state with a copy of another board's current position. The
+     * undo history is not copied.
+     */
+    public void copyFrom(BitBoard other) {
+        discs[0] = other.discs[0];
+        discs[1] = other.discs[1];
+        bombs = other.bombs;
+        unflippables = other.unflippables;
+        sideToMove = other.sideToMove;
+        for (int side = 0; side < 2; side++) {
+            bombsLeft[side] = other.bombsLeft[side];
+            unflippablesLeft[side] = other.unflippablesLeft[side];
+        }
+        ply = 0;
+        key = other.key;
+    }
+
+    private void loadInventory(int side, Player player) {
+        bombsLeft[side] = Math.max(0, Math.min(Player.initial_number_of_bombs, player.getNumber_of_bombs()));
+        unflippablesLeft[side] = Math.max(0,
+                Math.min(Player.initial_number_of_unflippedable, player.getNumber_of_unflippedable()));
+    }
+
+    /**
+     * Packs a square and a disc type into one move code, {@code square | type << 6}.
+     */
+    public static int move(int square, int type) {
+        return square | type << 6;
+    }
+
+    public static int moveSquare(int move) {
+        return move & 63;
+    }
+
+    public static int moveType(int move) {
+        return move >>> 6;
+    }
+
+    public static int square(int row, int col) {
+        return row * SIZE + col;
+    }
+
+    public static long bit(int row, int col) {
+        return 1L << square(row, col);
+    }
+
+    /**
+     * Maps a disc instance to its type code.
+     */
+    public static int typeOf(Disc disc) {
+        return disc == null ? SIMPLE : (disc.getCode() - 1) >> 1;
+    }
+
+    static long shift(long x, int dir) {
+        int s = SHIFTS[dir];
+        return (s > 0 ? x << s : x >>> -s) & WRAP_MASKS[dir];
+    }
+
+    /**
+     * All squares adjacent (in the 8 directions) to any square of the mask.
+     */
+    static long neighbours(long x) {
+        long row = x | ((x << 1) & NOT_COL_0) | ((x >>> 1) & NOT_COL_7);
+        return (row | (row << 8) | (row >>> 8)) & ~x;
+    }
+
+    /**
+     * Computes the legal move squares for the given side as a mask.
+     */
+    public long legalMoves(int side) {
+        long own = discs[side];
+        long opp = discs[side ^ 1];
+        long oppFlippable = opp & ~unflippables;
+        long empty = ~(own | opp);
+        long moves = 0;
+        for (int dir = 0; dir < 8; dir++) {
+            // any: contiguous run of opponent discs; flip: such a run holding a flippable disc
+            long any = shift(own, dir) & opp;
+            long flip = shift(own, dir) & oppFlippable;
+            for (int i = 0; i < SIZE - 3 && any != 0; i++) {
+                moves |= shift(flip, dir) & empty;
+                flip = (shift(flip, dir) & opp) | (shift(any, dir) & oppFlippable);
+                any = shift(any, dir) & opp;
+            }
+            moves |= shift(flip, dir) & empty;
+        }
+        return moves;
+    }
+
+    public long legalMoves() {
+        return legalMoves(sideToMove);
+    }
+
+    /**
+     * Computes every disc that would change owner if the given side placed a disc
+     * on the square, including bomb chain reactions. The type of the placed disc
+     * never changes the result. An empty mask means the move is illegal.
+     */
+    public long flips(int square, int side) {
+        long own = discs[side];
+        long opp = discs[side ^ 1];
+        long oppFlippable = opp & ~unflippables;
+        long start = 1L << square;
+        long captured = 0;
+        for (int dir = 0; dir < 8; dir++) {
+            long run = 0;
+            long x = shift(start, dir);
+            while ((x & opp) != 0) {
+                run |= x;
+                x = shift(x, dir);
+            }
+            if ((x & own) != 0)
+                captured |= run & oppFlippable;
+        }
+        return captured == 0 ? 0 : resolveBombs(captured, oppFlippable);
+    }
+
+    public long flips(int square) {
+        return flips(square, sideToMove);
+    }
+
+    // Floods from every captured bomb through flippable opponent discs, continuing only through bombs
+    private long resolveBombs(long captured, long oppFlippable) {
+        long frontier = captured & bombs;
+        long exploded = 0;
+        while (frontier != 0) {
+            exploded |= frontier;
+            long hit = neighbours(frontier) & oppFlippable;
+            captured |= hit;
+            frontier = hit & bombs & ~exploded;
+        }
+        return captured;
+    }
+
+    /**
+     * Plays a move for the side to move. The caller is responsible for legality
+     * and for the inventory check of special discs.
+     *
+     * @return the mask of flipped discs.
+     */
+    public long play(int square, int type) {
+        int side = sideToMove;
+        long flipped = flips(square, side);
+        long placed = 1L << square;
+        discs[side] |= flipped | placed;
+        discs[side ^ 1] &= ~flipped;
+        key ^= hashMove(square, type, flipped, side);
+        if (type == BOMB) {
+            bombs |= placed;
+            bombsLeft[side]--;
+        } else if (type == UNFLIPPABLE) {
+            unflippables |= placed;
+            unflippablesLeft[side]--;
+        }
+        if (ply == undoMoves.length) {
+            undoMoves = java.util.Arrays.copyOf(undoMoves, ply * 2);
+            undoFlips = java.util.Arrays.copyOf(undoFlips, ply * 2);
+        }
+        undoFlips[ply] = flipped;
+        undoMoves[ply] = move(square, type);
+        ply++;
+        sideToMove = side ^ 1;
+        return flipped;
+    }
+
+    /**
+     * Takes back the last move played through {@link #play(int, int)}.
+     *
+     * @return false if there was nothing to undo.
+     */
+    public boolean undo() {
+        if (ply == 0)
+            return false;
+        ply--;
+        long flipped = undoFlips[ply];
+        int square = moveSquare(undoMoves[ply]);
+        int type = moveType(undoMoves[ply]);
+        long placed = 1L << square;
+        int side = sideToMove ^ 1;
+        discs[side] &= ~(flipped | placed);
+        discs[side ^ 1] |= flipped;
+        if (type == BOMB) {
+            bombs &= ~placed;
+            bombsLeft[side]++;
+        } else if (type == UNFLIPPABLE) {
+            unflippables &= ~placed;
+            unflippablesLeft[side]++;
+        }
+        sideToMove = side;
+        key ^= hashMove(square, type, flipped, side);
+        return true;
+    }
+
+    // Key difference between the states before and after a move; must see the pre-move inventory
+    private long hashMove(int square, int type, long flipped, int side) {
+        long delta = Zobrist.disc(side, type, square) ^ Zobrist.sideToMove(1);
+        for (long bits = flipped; bits != 0; bits &= bits - 1) {
+            int sq = Long.numberOfTrailingZeros(bits);
+            delta ^= Zobrist.flip(typeAt(sq), sq);
+        }
+        if (type == BOMB) {
+            delta ^= Zobrist.bombs(side, bombsLeft[side]) ^ Zobrist.bombs(side, bombsLeft[side] - 1);
+        } else if (type == UNFLIPPABLE) {
+            delta ^= Zobrist.unflippables(side, unflippablesLeft[side])
+                    ^ Zobrist.unflippables(side, unflippablesLeft[side] - 1);
+        }
+        return delta;
+    }
+
+    public boolean canPlay(int type, int side) {
+        if (type == BOMB)
+            return bombsLeft[side] > 0;
+        if (type == UNFLIPPABLE)
+            return unflippablesLeft[side] > 0;
+        return true;
+    }
+
+    /**
+     * Returns the owner side of the square, or -1 if it is empty.
+     */
+    public int ownerAt(int square) {
+        long b = 1L << square;
+        if ((discs[0] & b) != 0)
+            return 0;
+        if ((discs[1] & b) != 0)
+            return 1;
+        return -1;
+    }
+
+    public int typeAt(int square) {
+        long b = 1L << square;
+        if ((bombs & b) != 0)
+            return BOMB;
+        if ((unflippables & b) != 0)
+            return UNFLIPPABLE;
+        return SIMPLE;
+    }
+
+    public long discs(int side) {
+        return discs[side];
+    }
+
+    public long bombs() {
+        return bombs;
+    }
+
+    public long unflippables() {
+        return unflippables;
+    }
+
+    public int count(int side) {
+        return Long.bitCount(discs[side]);
+    }
+
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    public int getBombsLeft(int side) {
+        return bombsLeft[side];
+    }
+
+    public int getUnflippablesLeft(int side) {
+        return unflippablesLeft[side];
+    }
+
+    /**
+     * The Zobrist key of the current state, maintained incrementally.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    public int getPly() {
+        return ply;
+    }
+}
@@ -0,0 +1,198 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link PlayableLogic} implementation backed by a {@link BitBoard}. It plays
+ * by exactly the same rules as {@link GameLogic}, but finds moves and flips with
+ * shift/mask operations instead of walking {@link Position} objects, and it does
+ * not log to the console, which makes it suitable for AI-vs-AI batch runs.
+ * Only the standard 8x8 board is supported.
+ */
+public class BitboardLogic implements PlayableLogic {
+    private final BitBoard board = new BitBoard();
+    private final Position[] squares = new Position[BitBoard.SQUARES];
+    private final List<Position> possibleNextMoves = new ArrayList<>(BitBoard.SQUARES);
+    private Player player1;
+    private Player player2;
+
+    public BitboardLogic(Player player1, Player player2) {
+        for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+            squares[sq] = Position.of(sq / BitBoard.SIZE, sq % BitBoard.SIZE);
+        }
+        this.player1 = player1;
+        this.player2 = player2;
+    }
+
+    public BitboardLogic() {
+        this(new HumanPlayer(true), AIPlayer.createAIPlayer("GreedyAI", false));
+    }
+
+    /**
+     * Creates a copy of the current position that can be read, or played on,
+     * without touching this game. The players are shared rather than copied, and
+     * the undo history is not copied.
+     */
+    public BitboardLogic copy() {
+        BitboardLogic copy = new BitboardLogic(player1, player2);
+        copy.board.copyFrom(board);
+        return copy;
+    }
+
+    @Override
+    public boolean locate_disc(Position position, Disc disc) {
+        if (!EngineMetrics.ENABLED)
+            return placeDisc(position, disc);
+        long start = System.nanoTime();
+        boolean placed = placeDisc(position, disc);
+        EngineMetrics.locateDisc.record(System.nanoTime() - start);
+        return placed;
+    }
+
+    private boolean placeDisc(Position position, Disc disc) {
+        int side = board.getSideToMove();
+        Player currentPlayer = side == 0 ? player1 : player2;
+        int type = BitBoard.typeOf(disc);
+
+        if (type == BitBoard.BOMB && currentPlayer.getNumber_of_bombs() <= 0)
+            return false;
+        if (type == BitBoard.UNFLIPPABLE && currentPlayer.getNumber_of_unflippedable() <= 0)
+            return false;
+
+        if (!isOnBoard(position))
+            return false;
+        int square = BitBoard.square(position.row(), position.col());
+        if ((board.legalMoves(side) & (1L << square)) == 0)
+            return false;
+
+        long flipped = board.play(square, type);
+        if (EngineMetrics.ENABLED) {
+            EngineMetrics.flips.add(Long.bitCount(flipped));
+            // Every captured bomb explodes, so the chain is the bombs among the flipped discs
+            int chain = Long.bitCount(flipped & board.bombs());
+            if (chain > 0)
+                EngineMetrics.bombChains.record(chain);
+        }
+        if (type == BitBoard.BOMB) {
+            currentPlayer.reduce_bomb();
+        } else if (type == BitBoard.UNFLIPPABLE) {
+            currentPlayer.reduce_unflippedable();
+        }
+        return true;
+    }
+
+    // Whether the position is on the 8x8 board; the square index of any other position
+    // would alias a real square, or wrap around in the 64-bit masks
+    private static boolean isOnBoard(Position position) {
+        return position.row() >= 0 && position.row() < BitBoard.SIZE && position.col() >= 0
+                && position.col() < BitBoard.SIZE;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the position is off the board.
+     */
+    @Override
+    public Disc getDiscAtPosition(Position position) {
+        if (!isOnBoard(position))
+            throw new IllegalArgumentException("Position off the board: " + position);
+        int square = BitBoard.square(position.row(), position.col());
+        int owner = board.ownerAt(square);
+        if (owner < 0)
+            return null;
+        Player player = owner == 0 ? player1 : player2;
+        return player.getDisc(board.typeAt(square));
+    }
+
+    @Override
+    public int getBoardSize() {
+        return BitBoard.SIZE;
+    }
+
+    @Override
+    public List<Position> ValidMoves() {
+        long start = EngineMetrics.ENABLED ? System.nanoTime() : 0;
+        possibleNextMoves.clear();
+        for (long moves = board.legalMoves(); moves != 0; moves &= moves - 1) {
+            possibleNextMoves.add(squares[Long.numberOfTrailingZeros(moves)]);
+        }
+        if (EngineMetrics.ENABLED)
+            EngineMetrics.validMoves.record(System.nanoTime() - start);
+        return possibleNextMoves;
+    }
+
+    @Override
+    public int countFlips(Position position) {
+        // This engine's flip calculation, counted as GameLogic counts calculateNextMove
+        if (EngineMetrics.ENABLED)
+            EngineMetrics.calculateNextMoveCalls.increment();
+        if (!isOnBoard(position))
+            return 0;
+        return Long.bitCount(board.flips(BitBoard.square(position.row(), position.col())));
+    }
+
+    @Override
+    public Player getFirstPlayer() {
+        return player1;
+    }
+
+    @Override
+    public Player getSecondPlayer() {
+        return player2;
+    }
+
+    @Override
+    public void setPlayers(Player player1, Player player2) {
+        this.player1 = player1;
+        this.player2 = player2;
+    }
+
+    @Override
+    public boolean isFirstPlayerTurn() {
+        return board.getSideToMove() == 0;
+    }
+
+    @Override
+    public boolean isGameFinished() {
+        if (board.legalMoves() != 0)
+            return false;
+        // Same tie-break as GameLogic: player 1 wins a draw
+        if (board.count(0) >= board.count(1)) {
+            player1.addWin();
+        } else {
+            player2.addWin();
+        }
+        if (EngineMetrics.ENABLED)
+            EngineMetrics.gamesCompleted.increment();
+        return true;
+    }
+
+    @Override
+    public void reset() {
+        player1.reset_bombs_and_unflippedable();
+        player2.reset_bombs_and_unflippedable();
+        board.reset();
+    }
+
+    @Override
+    public void undoLastMove() {
+        if (board.getPly() == 0)
+            return;
+        int side = board.getSideToMove() ^ 1;
+        long bombsBefore = board.bombs();
+        long unflippablesBefore = board.unflippables();
+        board.undo();
+        Player lastPlayer = side == 0 ? player1 : player2;
+        if (board.bombs() != bombsBefore) {
+            lastPlayer.increase_bomb();
+        } else if (board.unflippables() != unflippablesBefore) {
+            lastPlayer.increase_unflippedable();
+        }
+    }
+
+    public int getNumberOfDiscs(Player player) {
+        return board.count(player == player1 ? 0 : 1);
+    }
+
+    public BitBoard getBitBoard() {
+        return board;
+    }
+}
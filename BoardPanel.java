@@ -0,0 +1,157 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * The board of {@link GUI_for_chess_like_games}, painted as a single component
+ * rather than a grid of buttons. It remembers what every cell shows, and
+ * {@link #update} repaints only the cells that changed: after a move these are
+ * the placed and flipped squares and the squares whose move hint came, went or
+ * changed its flip count.
+ */
+public class BoardPanel extends JComponent {
+    private static final Color LIGHT = Color.WHITE;
+    private static final Color DARK = new Color(0, 0, 0);
+    private static final Color LIGHT_HINT = new Color(199, 255, 199); // Light green
+    private static final Color DARK_HINT = new Color(0, 100, 0); // Dark green
+    private static final Color PLAYER_ONE = Color.BLUE;
+    private static final Color PLAYER_TWO = new Color(255, 0, 0);
+    // A cell's hint: none, highlighted, or highlighted with the number of discs it flips
+    private static final int NO_HINT = -1;
+    private static final int HINT = 0;
+
+    private final int size;
+    private final int preferredCellSize;
+    private final int preferredFontSize;
+    private Font font;
+    private int fontCellSize;
+    // What each cell shows, indexed by row * size + col. Discs are shared instances,
+    // so a cell whose disc changed holds a different reference.
+    private final Disc[] discs;
+    private final int[] hints;
+    private final int[] nextHints;
+
+    /**
+     * Creates a board of size x size cells.
+     *
+     * @param cellSize      The preferred width and height of a cell, in pixels.
+     * @param fontSize      The font size of the discs at the preferred cell size.
+     * @param clickListener Called on the event thread with the cell clicked.
+     */
+    public BoardPanel(int size, int cellSize, int fontSize, Consumer<Position> clickListener) {
+        this.size = size;
+        this.preferredCellSize = cellSize;
+        this.preferredFontSize = fontSize;
+        this.discs = new Disc[size * size];
+        this.hints = new int[size * size];
+        this.nextHints = new int[size * size];
+        Arrays.fill(hints, NO_HINT);
+        setPreferredSize(new Dimension(size * cellSize, size * cellSize));
+        setOpaque(true);
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (!SwingUtilities.isLeftMouseButton(e))
+                    return;
+                int cell = cellSize();
+                int row = e.getY() / cell;
+                int col = e.getX() / cell;
+                if (row < size && col < size)
+                    clickListener.accept(Position.of(row, col));
+            }
+        });
+    }
+
+    // Cells stay square and grow or shrink with the component
+    private int cellSize() {
+        return Math.max(1, Math.min(getWidth(), getHeight()) / size);
+    }
+
+    /**
+     * Brings the board up to date with the game and repaints the cells that
+     * changed since the last update.
+     *
+     * @param showHints   Whether to highlight the legal moves of the side to move.
+     * @param showNumbers Whether highlighted moves show how many discs they flip.
+     */
+    public void update(PlayableLogic game, boolean showHints, boolean showNumbers) {
+        Arrays.fill(nextHints, NO_HINT);
+        if (showHints) {
+            for (Position p : game.ValidMoves())
+                nextHints[p.row() * size + p.col()] = showNumbers ? game.countFlips(p) : HINT;
+        }
+        int cell = cellSize();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int square = row * size + col;
+                Disc disc = game.getDiscAtPosition(Position.of(row, col));
+                if (disc == discs[square] && nextHints[square] == hints[square])
+                    continue;
+                discs[square] = disc;
+                hints[square] = nextHints[square];
+                repaint(col * cell, row * cell, cell, cell);
+            }
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null)
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        int cell = cellSize();
+        if (font == null || fontCellSize != cell) {
+            font = new Font("DejaVu Sans", Font.PLAIN, Math.max(1, preferredFontSize * cell / preferredCellSize));
+            fontCellSize = cell;
+        }
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setFont(font);
+
+        // Only the cells inside the clip, which after an update are the changed ones
+        int firstRow = clip.y / cell;
+        int lastRow = Math.min(size - 1, (clip.y + clip.height - 1) / cell);
+        int firstCol = clip.x / cell;
+        int lastCol = Math.min(size - 1, (clip.x + clip.width - 1) / cell);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++)
+                paintCell(g2, row, col, cell);
+        }
+    }
+
+    private void paintCell(Graphics2D g, int row, int col, int cell) {
+        int square = row * size + col;
+        int x = col * cell;
+        int y = row * cell;
+
+        // Alternating background colors for a chessboard pattern, green on the hinted moves
+        boolean light = (row + col) % 2 == 0;
+        if (hints[square] == NO_HINT)
+            g.setColor(light ? LIGHT : DARK);
+        else
+            g.setColor(light ? LIGHT_HINT : DARK_HINT);
+        g.fillRect(x, y, cell, cell);
+
+        String text;
+        Disc disc = discs[square];
+        if (disc != null) {
+            text = disc.getType();
+            g.setColor(disc.getOwner().isPlayerOne() ? PLAYER_ONE : PLAYER_TWO);
+        } else if (hints[square] > HINT) {
+            text = String.valueOf(hints[square]);
+            g.setColor(Color.black);
+        } else {
+            return;
+        }
+        FontMetrics metrics = g.getFontMetrics();
+        g.drawString(text, x + (cell - metrics.stringWidth(text)) / 2,
+                y + (cell - metrics.getHeight()) / 2 + metrics.getAscent());
+    }
+}
@@ -0,0 +1,196 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable picture of a {@link GameLogic} position: who owns each square,
+ * the disc types, the legal moves of the side to move and the counters. A game
+ * publishes a new snapshot after every change (see {@link GameLogic#getSnapshot}),
+ * so any thread can read a consistent board without locking the game or copying
+ * it.
+ * <p>
+ * The board is stored as bit planes over the squares {@code row * size + col},
+ * {@code (size * size + 63) / 64} longs each. Side 0 is player 1, side 1 is
+ * player 2, as in {@link BitBoard}.
+ */
+public final class BoardSnapshot {
+    // The planes, in the order they are stored
+    static final int SIDE_0 = 0;
+    static final int SIDE_1 = 1;
+    static final int BOMBS = 2;
+    static final int UNFLIPPABLES = 3;
+    static final int LEGAL = 4;
+    static final int PLANES = 5;
+    // toString's characters for each side, indexed by disc type
+    private static final String[] DISC_CHARS = { "XBU", "Obu" };
+
+    private final int size;
+    private final int words;
+    private final long[] bits;
+    private final boolean firstPlayerTurn;
+    private final int[] bombsLeft;
+    private final int[] unflippablesLeft;
+    private final int ply;
+    private final long key;
+
+    // bits holds the PLANES planes back to back; it is owned by the snapshot from now on
+    BoardSnapshot(int size, long[] bits, boolean firstPlayerTurn, int[] bombsLeft, int[] unflippablesLeft,
+            int ply, long key) {
+        this.size = size;
+        this.words = bits.length / PLANES;
+        this.bits = bits;
+        this.firstPlayerTurn = firstPlayerTurn;
+        this.bombsLeft = bombsLeft;
+        this.unflippablesLeft = unflippablesLeft;
+        this.ply = ply;
+        this.key = key;
+    }
+
+    public int getBoardSize() {
+        return size;
+    }
+
+    // Whether the square is set in the given plane
+    private boolean has(int plane, int square) {
+        return (bits[plane * words + (square >>> 6)] & (1L << square)) != 0;
+    }
+
+    // One word of a plane, as BitBoard reads it on the 8x8 board
+    long word(int plane, int word) {
+        return bits[plane * words + word];
+    }
+
+    private int square(int row, int col) {
+        if (row < 0 || row >= size || col < 0 || col >= size)
+            throw new IllegalArgumentException("No such square: (" + row + "," + col + ")");
+        return row * size + col;
+    }
+
+    /**
+     * Returns the owner side of the square, or -1 if it is empty.
+     */
+    public int ownerAt(int row, int col) {
+        int square = square(row, col);
+        if (has(SIDE_0, square))
+            return 0;
+        if (has(SIDE_1, square))
+            return 1;
+        return -1;
+    }
+
+    /**
+     * Returns the type of the disc on the square, {@link BitBoard#SIMPLE} for an
+     * empty one.
+     */
+    public int typeAt(int row, int col) {
+        int square = square(row, col);
+        if (has(BOMBS, square))
+            return BitBoard.BOMB;
+        if (has(UNFLIPPABLES, square))
+            return BitBoard.UNFLIPPABLE;
+        return BitBoard.SIMPLE;
+    }
+
+    public boolean isEmpty(int row, int col) {
+        return ownerAt(row, col) < 0;
+    }
+
+    /**
+     * Gets the number of discs of the given side.
+     */
+    public int count(int side) {
+        int count = 0;
+        for (int word = 0; word < words; word++)
+            count += Long.bitCount(word(side == 0 ? SIDE_0 : SIDE_1, word));
+        return count;
+    }
+
+    public boolean isFirstPlayerTurn() {
+        return firstPlayerTurn;
+    }
+
+    public int getSideToMove() {
+        return firstPlayerTurn ? 0 : 1;
+    }
+
+    public int getBombsLeft(int side) {
+        return bombsLeft[side];
+    }
+
+    public int getUnflippablesLeft(int side) {
+        return unflippablesLeft[side];
+    }
+
+    /**
+     * Whether the side to move may place a disc on the square.
+     */
+    public boolean isLegalMove(int row, int col) {
+        return has(LEGAL, square(row, col));
+    }
+
+    public int getLegalMoveCount() {
+        int count = 0;
+        for (int word = 0; word < words; word++)
+            count += Long.bitCount(word(LEGAL, word));
+        return count;
+    }
+
+    /**
+     * Gets the squares the side to move may play, in square order, as a new
+     * unmodifiable list.
+     */
+    public List<Position> getLegalMoves() {
+        List<Position> moves = new ArrayList<>(getLegalMoveCount());
+        for (int word = 0; word < words; word++) {
+            for (long legal = word(LEGAL, word); legal != 0; legal &= legal - 1) {
+                int square = word * 64 + Long.numberOfTrailingZeros(legal);
+                moves.add(Position.of(square / size, square % size));
+            }
+        }
+        return Collections.unmodifiableList(moves);
+    }
+
+    /**
+     * Whether the game is over: there are no passes, so it ends when the side to
+     * move has no legal move.
+     */
+    public boolean isGameOver() {
+        return getLegalMoveCount() == 0;
+    }
+
+    /**
+     * Gets the number of moves played since the start of the game, or since the
+     * position was copied.
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Gets the Zobrist key of the position, see {@link GameLogic#getZobristKey}.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Draws the board one row per line: X and O for player 1's and player 2's
+     * simple discs, B and b for bombs, U and u for unflippable discs, * for the
+     * legal moves and . for the other empty squares.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(size * (size + 1));
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int owner = ownerAt(row, col);
+                if (owner < 0)
+                    sb.append(isLegalMove(row, col) ? '*' : '.');
+                else
+                    sb.append(DISC_CHARS[owner].charAt(typeAt(row, col)));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -1,10 +1,25 @@
-public class BombDisc implements Disc, Cloneable {
-    private Player owner;
+import java.util.Objects;
+
+/**
+ * A disc that, when captured, also flips the flippable discs around it. Discs
+ * are immutable and shared, see {@link SimpleDisc}.
+ */
+public class BombDisc implements Disc {
+    private final Player owner;
     private final String type;
+    private final byte code;
 
     public BombDisc(Player owner) {
-        this.owner = owner;
+        this.owner = Objects.requireNonNull(owner, "A disc needs an owner");
         this.type = "💣";
+        this.code = Disc.code(BitBoard.BOMB, owner);
+    }
+
+    /**
+     * Gets the shared bomb disc of the given player.
+     */
+    public static BombDisc of(Player owner) {
+        return (BombDisc) owner.getDisc(BitBoard.BOMB);
     }
 
     @Override
@@ -12,22 +27,26 @@ public class BombDisc implements Disc, Cloneable {
         return owner;
     }
 
+    @Deprecated
     @Override
     public void setOwner(Player player) {
-        this.owner = player;
+        throw new UnsupportedOperationException("Discs are immutable; use the new owner's disc instead");
     }
 
     @Override
     public String getType() {
         return type;
     }
+
+    @Override
+    public byte getCode() {
+        return code;
+    }
+
+    // Discs are immutable, so a clone may as well be the same object
     @Override
-    public UnflippableDisc clone() {
-        try {
-            return (UnflippableDisc) super.clone(); // Call super.clone()
-        } catch (CloneNotSupportedException e) {
-            throw new RuntimeException(e); // Handle the exception
-        }
+    public BombDisc clone() {
+        return this;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+/**
+ * Prints the game's events to the console, in the messages the game has always
+ * logged.
+ */
+public class ConsoleGameListener implements GameListener {
+
+    private static String name(Player player) {
+        return player.isPlayerOne() ? "Player 1" : "Player 2";
+    }
+
+    @Override
+    public void movePlayed(Player player, Position position, Disc disc, int flips) {
+        System.out.printf("%s placed a %s at %s%n", name(player), disc.getClass().getSimpleName(), position);
+    }
+
+    @Override
+    public void discFlipped(Player player, Position position, Disc disc) {
+        System.out.printf("%s flipped the %s at %s%n", name(player), disc.getClass().getSimpleName(), position);
+    }
+
+    @Override
+    public void moveRejected(Player player, Position position, String reason) {
+        System.out.println(reason);
+    }
+
+    @Override
+    public void moveUndone(Player player, Position position, int flips) {
+        System.out.printf("Undoing last move: removed %s's disc at %s, flipped back %d discs%n", name(player),
+                position, flips);
+    }
+
+    @Override
+    public void gameOver(Player winner, int player1Discs, int player2Discs) {
+        if (winner.isPlayerOne())
+            System.out.println("Player 1 wins with " + player1Discs + " discs! Player 2 had " + player2Discs + " discs.");
+        else
+            System.out.println("Player 2 wins with " + player2Discs + " discs! Player 1 had " + player1Discs + " discs.");
+    }
+}
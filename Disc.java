@@ -12,9 +12,15 @@ public interface Disc {
     Player getOwner();
 
     /**
-     * Set the player who owns the Disc.
+     * Set the player who owns the Disc. Discs are immutable shared instances, so
+     * this always throws; a flipped disc is replaced with the other player's
+     * disc of the same type (see {@link Player#getDisc}).
      *
+     * @throws UnsupportedOperationException always.
+     * @deprecated Discs cannot change owner; use the new owner's disc from
+     *             {@link Player#getDisc} instead.
      */
+    @Deprecated
     void setOwner(Player player);
 
     /**
@@ -25,6 +31,22 @@ public interface Disc {
      * respectively.
      */
     String getType();
+
+    /**
+     * Get the compact code of the disc, as stored on the board: {@code 1 + 2 * type
+     * + side}, where type is {@link BitBoard#SIMPLE}, {@link BitBoard#BOMB} or
+     * {@link BitBoard#UNFLIPPABLE} and side is 0 for player 1 and 1 for player 2.
+     * 0 stands for an empty square.
+     */
+    byte getCode();
+
     Disc clone();
 
+    /**
+     * Computes the code of a disc of the given type and owner, see {@link #getCode}.
+     */
+    static byte code(int type, Player owner) {
+        return (byte) (1 + 2 * type + (owner.isPlayerOne() ? 0 : 1));
+    }
+
 }
\ No newline at end of file
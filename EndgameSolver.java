@@ -0,0 +1,228 @@
+import java.util.Random;
+
+/**
+ * Perfect-play solver for the last few empty squares. It searches to the end
+ * of the game and scores positions with the exact final disc differential (own
+ * discs minus the opponent's, as {@code GameLogic.getNumberOfDiscs} counts
+ * them), trying every disc type the side to move still has, so remaining bombs
+ * and unflippables are part of the solution.
+ * <p>
+ * Moves are ordered fastest-first (fewest replies for the opponent) while many
+ * squares are empty, and by region parity (squares in quadrants with an odd
+ * number of empties first) near the end. Results are kept in a small
+ * transposition table of its own. A solve can be bounded by a deadline and a
+ * node budget; it then gives up and reports no move.
+ * <p>
+ * Usage: {@code java EndgameSolver [empties] [positions]} solves random
+ * positions with that many empty squares and reports the solve times.
+ */
+public class EndgameSolver {
+    private static final int MAX_MOVES = BitBoard.SQUARES * 3;
+    // Below this many empties, ordering by mobility costs more than it saves
+    private static final int FASTEST_FIRST_EMPTIES = 7;
+    private static final long[] QUADRANTS = { 0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L,
+            0xF0F0F0F000000000L };
+
+    private final TranspositionTable table;
+    private final int[][] moves = new int[BitBoard.SQUARES][MAX_MOVES];
+    private final int[][] order = new int[BitBoard.SQUARES][MAX_MOVES];
+
+    private BitBoard board;
+    private long deadline;
+    private long nodeBudget;
+    private long nodes;
+    private boolean aborted;
+    private int rootBest;
+
+    private int lastScore;
+    private long lastNodes;
+    private long lastNanos;
+
+    /**
+     * @param log2Entries the transposition table holds {@code 2^log2Entries}
+     *                    entries.
+     */
+    public EndgameSolver(int log2Entries) {
+        this.table = new TranspositionTable(log2Entries);
+    }
+
+    /**
+     * Solves the position, leaving the board unchanged.
+     *
+     * @param deadline   System.nanoTime() by which to give up.
+     * @param nodeBudget the number of nodes after which to give up.
+     * @return the best move code (see {@link BitBoard#move}), or -1 if the side
+     *         to move has no move or the solve gave up.
+     */
+    public int solve(BitBoard board, long deadline, long nodeBudget) {
+        long start = System.nanoTime();
+        this.board = board;
+        this.deadline = deadline;
+        this.nodeBudget = nodeBudget;
+        this.nodes = 0;
+        this.aborted = false;
+        this.rootBest = -1;
+        int score = negamax(0, -BitBoard.SQUARES - 1, BitBoard.SQUARES + 1);
+        this.board = null;
+        lastNodes = nodes;
+        lastNanos = System.nanoTime() - start;
+        if (aborted)
+            return -1;
+        lastScore = score;
+        return rootBest;
+    }
+
+    private int negamax(int ply, int alpha, int beta) {
+        if ((++nodes & 1023) == 0 && (System.nanoTime() > deadline || nodes >= nodeBudget
+                || Thread.currentThread().isInterrupted()))
+            aborted = true;
+        if (aborted)
+            return 0;
+
+        int side = board.getSideToMove();
+        long legal = board.legalMoves();
+        if (legal == 0) // No passes: the game is over
+            return board.count(side) - board.count(side ^ 1);
+
+        long key = board.getKey();
+        int alphaOrig = alpha;
+        int ttMove = -1;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (ply > 0) {
+                // Every stored result is searched to the end, so the depth always suffices
+                int score = TranspositionTable.score(entry);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT)
+                    return score;
+                if (bound == TranspositionTable.LOWER)
+                    alpha = Math.max(alpha, score);
+                else
+                    beta = Math.min(beta, score);
+                if (alpha >= beta)
+                    return score;
+            }
+        }
+
+        int count = generateMoves(legal, ply, ttMove);
+        int best = -BitBoard.SQUARES - 1;
+        int bestMove = -1;
+        for (int i = 0; i < count; i++) {
+            int move = nextMove(ply, i, count);
+            board.play(BitBoard.moveSquare(move), BitBoard.moveType(move));
+            int score = -negamax(ply + 1, -beta, -alpha);
+            board.undo();
+            if (aborted)
+                return 0;
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (ply == 0)
+                    rootBest = move;
+            }
+            if (score > alpha)
+                alpha = score;
+            if (alpha >= beta)
+                break;
+        }
+
+        int bound = best <= alphaOrig ? TranspositionTable.UPPER
+                : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(key, empties(), bound, best, bestMove);
+        return best;
+    }
+
+    // Fills moves[ply] with every (square, disc type) pair the side to move may play, with
+    // their ordering scores
+    private int generateMoves(long legal, int ply, int ttMove) {
+        int side = board.getSideToMove();
+        long empty = ~(board.discs(0) | board.discs(1));
+        int empties = Long.bitCount(empty);
+        long oddRegions = 0;
+        for (long quadrant : QUADRANTS) {
+            if ((Long.bitCount(empty & quadrant) & 1) != 0)
+                oddRegions |= quadrant;
+        }
+
+        int count = 0;
+        for (long bits = legal; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            int parity = (oddRegions & (1L << square)) != 0 ? 1 << 8 : 0;
+            for (int type = BitBoard.SIMPLE; type <= BitBoard.UNFLIPPABLE; type++) {
+                if (!board.canPlay(type, side))
+                    continue;
+                // On the last empty square the disc type can no longer matter
+                if (type != BitBoard.SIMPLE && empties == 1)
+                    continue;
+                int move = BitBoard.move(square, type);
+                int score = parity - type;
+                if (empties >= FASTEST_FIRST_EMPTIES) {
+                    board.play(square, type);
+                    score -= Long.bitCount(board.legalMoves()) << 10;
+                    board.undo();
+                }
+                moves[ply][count] = move;
+                order[ply][count] = move == ttMove ? Integer.MAX_VALUE : score;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Selection sort step: swaps the best remaining move into slot i
+    private int nextMove(int ply, int i, int count) {
+        int[] m = moves[ply];
+        int[] o = order[ply];
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (o[j] > o[best])
+                best = j;
+        }
+        int move = m[best];
+        m[best] = m[i];
+        m[i] = move;
+        int score = o[best];
+        o[best] = o[i];
+        o[i] = score;
+        return move;
+    }
+
+    private int empties() {
+        return BitBoard.SQUARES - Long.bitCount(board.discs(0) | board.discs(1));
+    }
+
+    /**
+     * Gets the exact final disc differential of the last completed solve, from
+     * the point of view of the side that was to move.
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    public long getLastSolveNanos() {
+        return lastNanos;
+    }
+
+    public static void main(String[] args) {
+        int empties = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        EndgameSolver solver = new EndgameSolver(16);
+        Random random = new Random(11);
+        System.out.printf("%9s %8s %12s %10s %14s%n", "position", "score", "nodes", "ms", "nodes/s");
+        long totalNanos = 0;
+        for (int i = 0; i < count; i++) {
+            BitBoard position = ParallelSearchBenchmark.randomPosition(BitBoard.SQUARES - 4 - empties, random);
+            solver.solve(position, Long.MAX_VALUE, Long.MAX_VALUE);
+            long nanos = solver.getLastSolveNanos();
+            totalNanos += nanos;
+            System.out.printf("%9d %8d %12d %10.1f %14.0f%n", i, solver.getLastScore(), solver.getLastNodes(),
+                    nanos / 1e6, solver.getLastNodes() * 1e9 / nanos);
+        }
+        System.out.printf("Average solve time with %d empties: %.1f ms%n", empties, totalNanos / 1e6 / count);
+    }
+}
@@ -0,0 +1,224 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * Benchmark suite for the engine hot paths, run on a fixed set of opening,
+ * midgame and bomb-heavy positions. Each benchmark is warmed up and then
+ * measured for a fixed time; it reports throughput and allocation, both per
+ * call (bytes/op, from the JVM's per-thread allocation counter) and as a rate
+ * (MB/s), like JMH's GC profiler does.
+ * <p>
+ * Results can be saved and later used as a baseline, so an engine change can be
+ * compared against the numbers from before it. A second set of benchmarks
+ * shows how move generation scales with the board size, on midgame positions
+ * of 8x8 up to 32x32 boards.
+ * <p>
+ * Usage: {@code java EngineBenchmark [--millis n] [--filter text]
+ * [--save file] [--baseline file]}
+ */
+public class EngineBenchmark {
+    private static volatile int sink;
+
+    private final long millis;
+    private final String filter;
+    // name -> { ops/s, bytes/op }
+    private final Map<String, double[]> results = new LinkedHashMap<>();
+    private final Map<String, double[]> baseline = new LinkedHashMap<>();
+
+    private EngineBenchmark(long millis, String filter) {
+        this.millis = millis;
+        this.filter = filter;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long millis = 1000;
+        String filter = "";
+        Path save = null;
+        Path baselineFile = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--millis":
+                    millis = Long.parseLong(args[i + 1]);
+                    break;
+                case "--filter":
+                    filter = args[i + 1];
+                    break;
+                case "--save":
+                    save = Path.of(args[i + 1]);
+                    break;
+                case "--baseline":
+                    baselineFile = Path.of(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        AIPlayer.registerAllAIPlayers();
+
+        EngineBenchmark benchmark = new EngineBenchmark(millis, filter);
+        if (baselineFile != null)
+            benchmark.load(baselineFile);
+        System.out.printf("%-40s %14s %10s %10s %9s%n", "benchmark", "ops/s", "B/op", "MB/s", "vs base");
+        benchmark.runAll();
+        if (save != null)
+            benchmark.save(save);
+    }
+
+    private void runAll() {
+        runPosition("opening", randomPosition(0, 1, false));
+        runPosition("midgame", randomPosition(24, 1, false));
+        runPosition("bombs", randomPosition(30, 3, true));
+        for (int size = 8; size <= 32; size += 8)
+            runSize(size);
+    }
+
+    private void runSize(int size) {
+        GameLogic logic = randomPosition(size, size * size / 3, 1, false);
+        Player first = logic.getFirstPlayer();
+        Player second = logic.getSecondPlayer();
+        Position move = logic.ValidMoves().get(0);
+        Player mover = logic.isFirstPlayerTurn() ? first : second;
+        String name = size + "x" + size;
+
+        // setPlayers recomputes the legal moves of every empty square
+        measure("ValidMoves(full)/" + name, () -> {
+            logic.setPlayers(first, second);
+            return logic.ValidMoves().size();
+        });
+        measure("locate_disc+undoLastMove/" + name, () -> {
+            logic.locate_disc(move, SimpleDisc.of(mover));
+            int moves = logic.ValidMoves().size();
+            logic.undoLastMove();
+            return moves + logic.ValidMoves().size();
+        });
+    }
+
+    private void runPosition(String name, GameLogic logic) {
+        List<Position> moves = List.copyOf(logic.ValidMoves());
+        Player mover = logic.isFirstPlayerTurn() ? logic.getFirstPlayer() : logic.getSecondPlayer();
+        List<Position> bombs = bombPositions(logic);
+        GreedyAI greedy = new GreedyAI(logic.isFirstPlayerTurn());
+        RandomAI random = new RandomAI(logic.isFirstPlayerTurn());
+
+        measure("ValidMoves/" + name, () -> logic.ValidMoves().size());
+        measure("calculateNextMove/" + name, () -> {
+            int total = 0;
+            for (Position move : moves)
+                total += logic.calculateNextMove(move, mover).getCount();
+            return total;
+        });
+        if (!bombs.isEmpty()) {
+            measure("bombFlipped/" + name, () -> {
+                int total = 0;
+                for (Position bomb : bombs)
+                    total += logic.bombFlipped(bomb).size();
+                return total;
+            });
+        }
+        measure("locate_disc+undoLastMove/" + name, () -> {
+            logic.locate_disc(moves.get(0), SimpleDisc.of(mover));
+            logic.undoLastMove();
+            return 1;
+        });
+        measure("GreedyAI.makeMove/" + name, () -> greedy.makeMove(logic).getCount());
+        measure("RandomAI.makeMove/" + name, () -> random.makeMove(logic).getCount());
+    }
+
+    // Bombs owned by the player who is not to move: the ones the mover's flips set off
+    private static List<Position> bombPositions(GameLogic logic) {
+        Player opponent = logic.isFirstPlayerTurn() ? logic.getSecondPlayer() : logic.getFirstPlayer();
+        List<Position> bombs = new ArrayList<>();
+        for (int row = 0; row < logic.getBoardSize(); row++) {
+            for (int col = 0; col < logic.getBoardSize(); col++) {
+                Disc disc = logic.getDiscAtPosition(Position.of(row, col));
+                if (disc instanceof BombDisc && disc.getOwner() == opponent)
+                    bombs.add(Position.of(row, col));
+            }
+        }
+        return bombs;
+    }
+
+    /**
+     * Plays the given number of random plies from the start position with a fixed
+     * seed, so every run benchmarks the same position. With preferBombs, every
+     * move uses a bomb while the player has any left.
+     */
+    static GameLogic randomPosition(int plies, long seed, boolean preferBombs) {
+        return randomPosition(8, plies, seed, preferBombs);
+    }
+
+    static GameLogic randomPosition(int size, int plies, long seed, boolean preferBombs) {
+        GameLogic logic = new GameLogic(size, 0, 0, true, "GreedyAI");
+        logic.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+        logic.reset();
+        Random random = new Random(seed);
+        for (int i = 0; i < plies; i++) {
+            List<Position> moves = logic.ValidMoves();
+            if (moves.isEmpty())
+                break;
+            Position move = moves.get(random.nextInt(moves.size()));
+            Player player = logic.isFirstPlayerTurn() ? logic.getFirstPlayer() : logic.getSecondPlayer();
+            int choice = preferBombs ? 1 : random.nextInt(4);
+            Disc disc = choice == 1 && player.getNumber_of_bombs() > 0 ? BombDisc.of(player)
+                    : choice == 2 && player.getNumber_of_unflippedable() > 0 ? UnflippableDisc.of(player)
+                            : SimpleDisc.of(player);
+            logic.locate_disc(move, disc);
+        }
+        return logic;
+    }
+
+    private void measure(String name, IntSupplier operation) {
+        if (!name.contains(filter))
+            return;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // Warm up for the same duration as the measurement
+        long end = System.nanoTime() + millis * 1_000_000L;
+        while (System.nanoTime() < end)
+            sink += operation.getAsInt();
+
+        long calls = 0;
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        end = start + millis * 1_000_000L;
+        long now;
+        do {
+            for (int i = 0; i < 64; i++)
+                sink += operation.getAsInt();
+            calls += 64;
+            now = System.nanoTime();
+        } while (now < end);
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        double opsPerSecond = calls * 1e9 / (now - start);
+        double bytesPerOp = (double) bytes / calls;
+        results.put(name, new double[] { opsPerSecond, bytesPerOp });
+        double[] base = baseline.get(name);
+        System.out.printf("%-40s %14.0f %10.1f %10.1f %9s%n", name, opsPerSecond, bytesPerOp,
+                bytes / 1e6 * 1e9 / (now - start), base == null ? "" : String.format("%.2fx", opsPerSecond / base[0]));
+    }
+
+    private void save(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, double[]> result : results.entrySet())
+            lines.add(result.getKey() + "\t" + result.getValue()[0] + "\t" + result.getValue()[1]);
+        Files.write(file, lines);
+    }
+
+    private void load(Path file) throws IOException {
+        for (String line : Files.readAllLines(file)) {
+            String[] fields = line.split("\t");
+            baseline.put(fields[0], new double[] { Double.parseDouble(fields[1]), Double.parseDouble(fields[2]) });
+        }
+    }
+}
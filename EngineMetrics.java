@@ -0,0 +1,230 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Engine and AI instrumentation: counters and latency histograms built on
+ * {@link LongAdder}, so threads playing games in parallel do not contend on
+ * them. Metrics are only collected when the {@code reversi.metrics} system
+ * property is true; the instrumented code checks {@link #ENABLED} first, so
+ * with metrics off it does no timing at all.
+ * <p>
+ * When enabled, the metrics are registered on the platform MBean server as
+ * {@code reversi:type=EngineMetrics} and can be watched in JConsole.
+ */
+public final class EngineMetrics implements EngineMetricsMBean {
+    public static final boolean ENABLED = Boolean.getBoolean("reversi.metrics");
+
+    static final LongAdder calculateNextMoveCalls = new LongAdder();
+    static final LongAdder flips = new LongAdder();
+    static final Histogram bombChains = new Histogram();
+    static final Histogram validMoves = new Histogram();
+    static final Histogram locateDisc = new Histogram();
+    static final Histogram makeMove = new Histogram();
+    static final LongAdder searchNodes = new LongAdder();
+    static final LongAdder searchNanos = new LongAdder();
+    static final LongAdder playouts = new LongAdder();
+    static final LongAdder gamesCompleted = new LongAdder();
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new EngineMetrics(),
+                        new ObjectName("reversi:type=EngineMetrics"));
+            } catch (JMException e) {
+                throw new IllegalStateException("Cannot register the engine metrics MBean", e);
+            }
+        }
+    }
+
+    private EngineMetrics() {
+    }
+
+    /**
+     * Counts how often each value occurs, in power-of-two buckets: bucket i holds
+     * the values from 2^(i-1) to 2^i - 1, bucket 0 holds 0.
+     */
+    static final class Histogram {
+        private final LongAdder[] buckets = new LongAdder[65];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++)
+                buckets[i] = new LongAdder();
+        }
+
+        void record(long value) {
+            buckets[64 - Long.numberOfLeadingZeros(Math.max(0, value))].increment();
+            count.increment();
+            sum.add(value);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        double mean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        // Upper bound of the bucket holding the given fraction of the values
+        long percentile(double fraction) {
+            long target = (long) Math.ceil(count.sum() * fraction);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= target && seen > 0)
+                    return i == 0 ? 0 : i == 64 ? Long.MAX_VALUE : (1L << i) - 1;
+            }
+            return 0;
+        }
+
+        long max() {
+            for (int i = buckets.length - 1; i > 0; i--) {
+                if (buckets[i].sum() > 0)
+                    return i == 64 ? Long.MAX_VALUE : (1L << i) - 1;
+            }
+            return 0;
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets)
+                bucket.reset();
+            count.reset();
+            sum.reset();
+        }
+    }
+
+    /**
+     * Records a finished search of the given number of nodes.
+     */
+    static void recordSearch(long nodes, long nanos) {
+        searchNodes.add(nodes);
+        searchNanos.add(nanos);
+    }
+
+    /**
+     * Gets a short, human-readable summary of the metrics collected so far.
+     */
+    public static String report() {
+        EngineMetrics m = new EngineMetrics();
+        return String.format("ValidMoves: %d calls, mean %.0f ns, p99 < %d ns%n"
+                + "locate_disc: %d calls, mean %.0f ns, p99 < %d ns%n"
+                + "makeMove: %d calls, mean %.2f ms, p99 < %.2f ms%n"
+                + "calculateNextMove: %d calls, flips: %d, bomb chains: %d (mean %.2f bombs)%n"
+                + "search: %d nodes, %d nodes/s, %d playouts, games completed: %d",
+                m.getValidMovesCalls(), m.getValidMovesMeanNanos(), m.getValidMovesP99Nanos(),
+                m.getLocateDiscCalls(), m.getLocateDiscMeanNanos(), m.getLocateDiscP99Nanos(),
+                m.getMakeMoveCalls(), m.getMakeMoveMeanNanos() / 1e6, m.getMakeMoveP99Nanos() / 1e6,
+                m.getCalculateNextMoveCalls(), m.getFlips(), m.getBombChains(), m.getMeanBombChainLength(),
+                m.getSearchNodes(), m.getSearchNodesPerSecond(), m.getPlayouts(), m.getGamesCompleted());
+    }
+
+    @Override
+    public long getCalculateNextMoveCalls() {
+        return calculateNextMoveCalls.sum();
+    }
+
+    @Override
+    public long getFlips() {
+        return flips.sum();
+    }
+
+    @Override
+    public long getBombChains() {
+        return bombChains.count();
+    }
+
+    @Override
+    public double getMeanBombChainLength() {
+        return bombChains.mean();
+    }
+
+    @Override
+    public long getMaxBombChainLength() {
+        return bombChains.max();
+    }
+
+    @Override
+    public long getValidMovesCalls() {
+        return validMoves.count();
+    }
+
+    @Override
+    public double getValidMovesMeanNanos() {
+        return validMoves.mean();
+    }
+
+    @Override
+    public long getValidMovesP99Nanos() {
+        return validMoves.percentile(0.99);
+    }
+
+    @Override
+    public long getLocateDiscCalls() {
+        return locateDisc.count();
+    }
+
+    @Override
+    public double getLocateDiscMeanNanos() {
+        return locateDisc.mean();
+    }
+
+    @Override
+    public long getLocateDiscP99Nanos() {
+        return locateDisc.percentile(0.99);
+    }
+
+    @Override
+    public long getMakeMoveCalls() {
+        return makeMove.count();
+    }
+
+    @Override
+    public double getMakeMoveMeanNanos() {
+        return makeMove.mean();
+    }
+
+    @Override
+    public long getMakeMoveP99Nanos() {
+        return makeMove.percentile(0.99);
+    }
+
+    @Override
+    public long getSearchNodes() {
+        return searchNodes.sum();
+    }
+
+    @Override
+    public long getSearchNodesPerSecond() {
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : (long) (searchNodes.sum() * 1e9 / nanos);
+    }
+
+    @Override
+    public long getPlayouts() {
+        return playouts.sum();
+    }
+
+    @Override
+    public long getGamesCompleted() {
+        return gamesCompleted.sum();
+    }
+
+    @Override
+    public void reset() {
+        calculateNextMoveCalls.reset();
+        flips.reset();
+        bombChains.reset();
+        validMoves.reset();
+        locateDisc.reset();
+        makeMove.reset();
+        searchNodes.reset();
+        searchNanos.reset();
+        playouts.reset();
+        gamesCompleted.reset();
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * The JMX view of {@link EngineMetrics}. Latencies are in nanoseconds; the
+ * percentiles are upper bounds of power-of-two histogram buckets.
+ */
+public interface EngineMetricsMBean {
+
+    /**
+     * Gets the number of flip calculations for a candidate move: calls of
+     * {@link GameLogic#calculateNextMove} on GameLogic, and of
+     * {@link BitboardLogic#countFlips} on BitboardLogic, which has no
+     * calculateNextMove.
+     */
+    long getCalculateNextMoveCalls();
+
+    long getFlips();
+
+    /**
+     * Gets the number of moves that exploded at least one bomb; the chain length
+     * is the number of bombs a move exploded.
+     */
+    long getBombChains();
+
+    double getMeanBombChainLength();
+
+    long getMaxBombChainLength();
+
+    long getValidMovesCalls();
+
+    double getValidMovesMeanNanos();
+
+    long getValidMovesP99Nanos();
+
+    long getLocateDiscCalls();
+
+    double getLocateDiscMeanNanos();
+
+    long getLocateDiscP99Nanos();
+
+    long getMakeMoveCalls();
+
+    double getMakeMoveMeanNanos();
+
+    long getMakeMoveP99Nanos();
+
+    long getSearchNodes();
+
+    long getSearchNodesPerSecond();
+
+    long getPlayouts();
+
+    long getGamesCompleted();
+
+    /**
+     * Sets every counter and histogram back to zero.
+     */
+    void reset();
+}
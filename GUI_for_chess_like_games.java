@@ -2,17 +2,22 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
-import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * IMPORTANT:
  * DON'T MAKE ANY CHANGES HERE
  */
 public class GUI_for_chess_like_games extends JFrame {
-    private static final int BUTTON_SIZE = 55;
+    private static final int CELL_SIZE = 55;
     private static final int FONT_SIZE = 20;
-    private final JButton[][] buttons;
+    private final BoardPanel boardPanel;
     private final int BOARD_SIZE;
+    // Cells shrink on large boards so the whole board fits on screen
+    private final int cellSize;
+    private final int fontSize;
     private PlayableLogic gameLogic;
     private final JLabel turnLabel = new JLabel("Player 1's Turn");
     private final JLabel playerTowWinsLabel = new JLabel("Player 2 Wins: 0");
@@ -34,28 +39,15 @@ public class GUI_for_chess_like_games extends JFrame {
         }
     });
 
-    Timer timer = new Timer(aiSpeedSlider.getValue(), e -> {
-        Player currentPlayer = gameLogic.isFirstPlayerTurn() ? gameLogic.getFirstPlayer() : gameLogic.getSecondPlayer();
-
-        // If it's an AI player's turn
-        if (!currentPlayer.isHuman()) {
-
-            Move aiMove = ((AIPlayer) currentPlayer).makeMove(gameLogic);
-            preform_move(aiMove.position(), aiMove.disc());
-
-            // Update the current player after the move
-            currentPlayer = gameLogic.isFirstPlayerTurn() ? gameLogic.getFirstPlayer() : gameLogic.getSecondPlayer();
-
-            // If the next player is human, stop the timer
-            if (currentPlayer.isHuman()) {
-                ((Timer) e.getSource()).stop(); // Stop the timer
-                isAITurn = false; // Reset AI flag
-            }
-            updateBoard();
-        }
-        ((Timer) e.getSource()).setInitialDelay(aiSpeedSlider.getValue());
-        ((Timer) e.getSource()).restart();
+    // AI moves are computed here, off the event thread, one at a time
+    private final ExecutorService aiExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AI move");
+        thread.setDaemon(true);
+        return thread;
     });
+    private Future<?> pendingAIMove;
+    // Bumped on reset and undo, so a move computed for an older position is dropped
+    private int generation;
 
     /**
      * Initializes the graphical user interface for the Chess like Games.
@@ -67,6 +59,8 @@ public class GUI_for_chess_like_games extends JFrame {
         super(title);
         this.gameLogic = gameLogic;
         this.BOARD_SIZE = gameLogic.getBoardSize();
+        this.cellSize = Math.max(20, Math.min(CELL_SIZE, 8 * CELL_SIZE / BOARD_SIZE * 3 / 2));
+        this.fontSize = Math.max(9, FONT_SIZE * cellSize / CELL_SIZE);
         setTitle(title);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 
@@ -82,15 +76,12 @@ public class GUI_for_chess_like_games extends JFrame {
         aiSpeedSlider.setPaintTicks(true);
         aiSpeedSlider.setPaintLabels(true);
 
-        // The timer will repeat every second
-        timer.setRepeats(true);
-
         // Create a panel with BoxLayout (Y_AXIS) to arrange components vertically
         JPanel sliderPanel = new JPanel();
         sliderPanel.setLayout(new BoxLayout(sliderPanel, BoxLayout.Y_AXIS));
 
         // Create a label for the slider
-        JLabel sliderLabel = new JLabel("AI Speed:");
+        JLabel sliderLabel = new JLabel("AI Delay (ms):");
 
         // Create a label for the color checkbox
         JLabel colorLabel = new JLabel("Show Color:");
@@ -133,8 +124,10 @@ public class GUI_for_chess_like_games extends JFrame {
         // An action listener to the back button
         backButton.addActionListener(e -> {
             // implementation of the "Back Button"
+            cancelAIMove();
             gameLogic.undoLastMove();
             updateBoard();
+            scheduleAIMove();
         });
 
         // Create left and right sub-panels for the win count labels
@@ -155,8 +148,7 @@ public class GUI_for_chess_like_games extends JFrame {
         topPanel.add(turnLabel, BorderLayout.CENTER);
         topPanel.add(rightLabelPanel, BorderLayout.EAST);
         add(topPanel, BorderLayout.NORTH);
-        mainPanel.setLayout(new GridLayout(BOARD_SIZE, BOARD_SIZE));
-        buttons = new JButton[BOARD_SIZE][BOARD_SIZE];
+        boardPanel = new BoardPanel(BOARD_SIZE, cellSize, fontSize, this::ButtonListener);
 
         // Adding the reset button to the bottom of the main panel
         JButton resetButton = new JButton("Reset");
@@ -213,7 +205,7 @@ public class GUI_for_chess_like_games extends JFrame {
     }
 
     /**
-     * This function is called when button is pressed.
+     * This function is called when a cell of the board is clicked.
      * 
      * @param newPosition The new disc position.
      */
@@ -225,25 +217,126 @@ public class GUI_for_chess_like_games extends JFrame {
         Player currentPlayer = gameLogic.isFirstPlayerTurn() ? gameLogic.getFirstPlayer() : gameLogic.getSecondPlayer();
         if (currentPlayer.isHuman()) {
             if (bombKeyPressed) {
-                preform_move(newPosition, new BombDisc(currentPlayer));
+                preform_move(newPosition, BombDisc.of(currentPlayer));
             } else if (unflippedKeyPressed) {
-                preform_move(newPosition, new UnflippableDisc(currentPlayer));
+                preform_move(newPosition, UnflippableDisc.of(currentPlayer));
             } else {
-                if (!preform_move(newPosition, new SimpleDisc(currentPlayer)))
+                if (!preform_move(newPosition, SimpleDisc.of(currentPlayer)))
                     return;
             }
         }
-        currentPlayer = gameLogic.isFirstPlayerTurn() ? gameLogic.getFirstPlayer() : gameLogic.getSecondPlayer();
+        updateBoard();
+        scheduleAIMove();
+    }
 
-        if (!currentPlayer.isHuman())
-            isAITurn = true;
+    /**
+     * Starts computing the next move if an AI is to move. The AI thinks on a
+     * background thread against a copy of the game, so the window stays
+     * responsive, and the move is played on the event thread no sooner than the
+     * AI delay slider's value after the search started. A game that cannot be
+     * copied is only read on the event thread, so its AI moves are computed
+     * there. Does nothing while a move is already being computed.
+     */
+    private void scheduleAIMove() {
+        if (isAITurn)
+            return;
+        Player currentPlayer = gameLogic.isFirstPlayerTurn() ? gameLogic.getFirstPlayer() : gameLogic.getSecondPlayer();
+        if (currentPlayer.isHuman() || gameLogic.ValidMoves().isEmpty()) {
+            isAITurn = false;
+            return;
+        }
+        isAITurn = true;
+        AIPlayer ai = (AIPlayer) currentPlayer;
+        PlayableLogic snapshot = copyOf(gameLogic);
+        int expected = generation;
+        long start = System.nanoTime();
+        if (snapshot == null) {
+            SwingUtilities.invokeLater(() -> {
+                if (expected == generation)
+                    think(ai, gameLogic, expected, start);
+            });
+            return;
+        }
+        pendingAIMove = aiExecutor.submit(() -> think(ai, snapshot, expected, start));
+    }
 
-        // Start the AI turn with a delay
+    // Computes the AI's move and hands it, or the AI's failure, to the event thread
+    private void think(AIPlayer ai, PlayableLogic game, int expected, long start) {
+        Move aiMove;
+        try {
+            aiMove = ai.timedMove(game);
+        } catch (RuntimeException e) {
+            SwingUtilities.invokeLater(() -> reportAIFailure(expected, ai, e));
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            int remaining = aiSpeedSlider.getValue() - (int) ((System.nanoTime() - start) / 1_000_000);
+            if (remaining <= 0) {
+                applyAIMove(expected, aiMove);
+                return;
+            }
+            Timer delay = new Timer(remaining, e -> applyAIMove(expected, aiMove));
+            delay.setRepeats(false);
+            delay.start();
+        });
+    }
+
+    // Runs on the event thread: a failing AI ends its turn without a move, and the turn
+    // label says why instead of leaving the board waiting
+    private void reportAIFailure(int expected, AIPlayer ai, RuntimeException failure) {
+        if (expected != generation)
+            return;
+        isAITurn = false;
+        updateBoard();
+        turnLabel.setForeground(ai.isPlayerOne() ? Color.blue : Color.red);
+        turnLabel.setText((ai.isPlayerOne() ? "Player 1" : "Player 2") + "'s AI failed: " + failure);
+    }
+
+    // Runs on the event thread: plays the AI's move unless the game was reset or undone meanwhile
+    private void applyAIMove(int expected, Move aiMove) {
+        if (expected != generation)
+            return;
+        if (aiMove == null || !preform_move(aiMove.position(), aiMove.disc())) {
+            isAITurn = false;
+            updateBoard();
+            return;
+        }
+        // preform_move resets the game when it ends, which schedules its own AI move
+        if (expected != generation)
+            return;
+        isAITurn = false;
         updateBoard();
-        timer.setInitialDelay(aiSpeedSlider.getValue());
+        scheduleAIMove();
 
-        // Restart the timer to trigger AI moves
-        timer.restart();
+        // Let the AI think on while the human does
+        Player mover = aiMove.disc().getOwner();
+        PlayableLogic position = isAITurn || !(mover instanceof AIPlayer) ? null : copyOf(gameLogic);
+        if (position != null)
+            ((AIPlayer) mover).ponder(position);
+    }
+
+    // Drops the pending AI move, interrupting its search, and stops the AIs pondering
+    private void cancelAIMove() {
+        generation++;
+        if (pendingAIMove != null) {
+            pendingAIMove.cancel(true);
+            pendingAIMove = null;
+        }
+        isAITurn = false;
+        for (Player player : new Player[] { gameLogic.getFirstPlayer(), gameLogic.getSecondPlayer() }) {
+            if (player instanceof AIPlayer)
+                ((AIPlayer) player).stopPondering();
+        }
+    }
+
+    // A private copy of the game for another thread to read, or null if this kind of
+    // game cannot be copied
+    private static PlayableLogic copyOf(PlayableLogic logic) {
+        if (logic instanceof GameLogic)
+            return ((GameLogic) logic).copy();
+        if (logic instanceof BitboardLogic)
+            return ((BitboardLogic) logic).copy();
+        return null;
     }
 
     // Return true only if preformed the move
@@ -260,11 +353,9 @@ public class GUI_for_chess_like_games extends JFrame {
 
     /**
      * Updates the game board UI to reflect the current state of the game.
-     * It updates the turn label, the button text, and the text color based on the
-     * current game state.
-     * For each cell on the board, the button's appearance and text will be updated
-     * to match the corresponding
-     * piece's position and type. The text color is determined by the piece's owner.
+     * It updates the turn label and the win counts, and repaints the board cells
+     * whose disc or move hint changed since the last update; the rest of the
+     * board is left alone.
      *
      * @see #updateWinsLabels(int, int)
      */
@@ -278,126 +369,23 @@ public class GUI_for_chess_like_games extends JFrame {
             turnLabel.setText("Player 1's Turn");
         }
 
-        for (int col = 0; col < BOARD_SIZE; col++) {
-            for (int row = 0; row < BOARD_SIZE; row++) {
-                // Set alternating background colors for a chessboard pattern
-                if ((row + col) % 2 != 0) {
-                    buttons[row][col].setBackground(new Color(0, 0, 0));
-                } else {
-                    buttons[row][col].setBackground(Color.WHITE);
-                }
-            }
-        }
-
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                Disc disc = gameLogic.getDiscAtPosition(new Position(row, col));
-                if (disc != null) {
-                    // Update the button's appearance based on the new piece position
-                    String type = disc.getType();
-                    buttons[row][col].setText(type);
-                    if ((disc.getOwner().isPlayerOne())) {
-                        buttons[row][col].setForeground(Color.BLUE);
-                    } else {
-                        buttons[row][col].setForeground(new Color(255, 0, 0));
-                    }
-                } else {
-                    buttons[row][col].setText("");
-                }
-            }
-        }
-
-        if (!isAITurn && showColor)
-            enhanceColor();
+        boardPanel.update(gameLogic, !isAITurn && showColor, showNumbers);
 
         updateWinsLabels(gameLogic.getSecondPlayer().getWins(), gameLogic.getFirstPlayer().getWins());
     }
 
-    private void enhanceColor() {
-        List<Position> possiblePositions = this.gameLogic.ValidMoves();
-        for (Position p : possiblePositions) {
-            JButton button = buttons[p.row()][p.col()];
-            Color currentColor = button.getBackground();
-
-            // Determine if the current color is closer to white or black
-            int brightness = (currentColor.getRed() + currentColor.getGreen() + currentColor.getBlue()) / 3;
-
-            Color enhancedColor;
-            if (brightness > 128) {
-                // For lighter colors (closer to white)
-                enhancedColor = new Color(199, 255, 199); // Light green
-            } else {
-                // For darker colors (closer to black)
-                enhancedColor = new Color(0, 100, 0); // Dark green
-            }
-
-            button.setBackground(enhancedColor);
-            if (showNumbers) {
-                int num = gameLogic.countFlips(p);
-                button.setForeground(Color.black);
-                button.setText(String.valueOf(num));
-            }
-        }
-    }
-
     private void updateWinsLabels(int attackerWins, int defenderWins) {
         playerTowWinsLabel.setText("Player 2 Wins: " + attackerWins);
         playerOneWinsLabel.setText("Player 1 Wins: " + defenderWins);
     }
 
     /**
-     * Initializes and displays the game board with buttons for interactions.
-     * Sets up button appearance, colors, and interactions with user input.
-     * Highlights selected pieces and manages their movement based on user actions.
+     * Initializes and displays the game board, which passes clicks on its
+     * cells to {@link #ButtonListener}.
      */
     public void start() {
-        // Your game logic to handle user interactions and updates
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                buttons[row][col] = new JButton();
-                buttons[row][col].setPreferredSize(new Dimension(BUTTON_SIZE, BUTTON_SIZE)); // Adjust size as needed
-                Font chessFont = new Font("DejaVu Sans", Font.PLAIN, FONT_SIZE);
-                buttons[row][col].setFont(chessFont);
-
-                // Set alternating background colors for a chessboard pattern
-                if ((row + col) % 2 != 0) {
-                    buttons[row][col].setBackground(new Color(0, 0, 0));
-                } else {
-                    buttons[row][col].setBackground(Color.WHITE);
-                }
-
-                // Clear default border and content area
-                buttons[row][col].setBorderPainted(false);
-
-                if (gameLogic.getDiscAtPosition(new Position(row, col)) != null) {
-                    // Set the button's appearance based on the piece type
-                    Disc disc = gameLogic.getDiscAtPosition(new Position(row, col));
-                    String type = disc.getType();
-                    buttons[row][col].setText(type);
-                    if ((disc.getOwner().isPlayerOne())) {
-                        buttons[row][col].setForeground(Color.BLUE);
-                    } else {
-                        buttons[row][col].setForeground(new Color(255, 0, 0));
-                    }
-                }
-
-                mainPanel.add(buttons[row][col]);
-                buttons[row][col].putClientProperty("row", row); // Store the row index
-                buttons[row][col].putClientProperty("col", col); // Store the column index
-                buttons[row][col].addActionListener((e) -> {
-                    JButton clickedButton = (JButton) e.getSource();
-
-                    int rowIndex = (int) clickedButton.getClientProperty("row");
-                    int colIndex = (int) clickedButton.getClientProperty("col");
-                    Position newPosition = new Position(rowIndex, colIndex);
-
-                    ButtonListener(newPosition); // Use the updated logic
-                });
-
-            }
-        }
-        if (!isAITurn && showColor)
-            enhanceColor();
+        boardPanel.update(gameLogic, !isAITurn && showColor, showNumbers);
+        mainPanel.add(boardPanel, BorderLayout.CENTER);
         // Add the main panel to the frame
         getContentPane().add(mainPanel);
 
@@ -407,14 +395,12 @@ public class GUI_for_chess_like_games extends JFrame {
     }
 
     public void resetGame() {
+        cancelAIMove();
         gameLogic.reset();
-        Player currentPlayer = gameLogic.isFirstPlayerTurn() ? gameLogic.getFirstPlayer() : gameLogic.getSecondPlayer();
 
-        if (!currentPlayer.isHuman()) {
-            ButtonListener(new Position(0, 0));
-        }
         // Reset UI elements
         updateBoard();
         turnLabel.setText("Player 1's Turn");
+        scheduleAIMove();
     }
 }
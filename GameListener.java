@@ -0,0 +1,69 @@
+/**
+ * Receives the events of a game played on {@link GameLogic}, see
+ * {@link GameLogic#addGameListener}. Every method does nothing by default, so a
+ * listener only overrides the events it needs. Events are delivered on the
+ * thread that changed the game, after the change.
+ */
+public interface GameListener {
+
+    /**
+     * A disc was placed. The flips follow as {@link #discFlipped} events.
+     *
+     * @param player   The player who moved.
+     * @param position The position of the new disc.
+     * @param disc     The disc placed.
+     * @param flips    The number of discs the move flipped, bomb chains included.
+     */
+    default void movePlayed(Player player, Position position, Disc disc, int flips) {
+    }
+
+    /**
+     * A disc was captured by a move.
+     *
+     * @param player   The player who captured it, now its owner.
+     * @param position The position of the disc.
+     * @param disc     The disc.
+     */
+    default void discFlipped(Player player, Position position, Disc disc) {
+    }
+
+    /**
+     * Bombs exploded during a move.
+     *
+     * @param player The player whose move set them off.
+     * @param bombs  The number of bombs that exploded.
+     * @param flips  The number of discs flipped by the explosions only.
+     */
+    default void bombChain(Player player, int bombs, int flips) {
+    }
+
+    /**
+     * A move was refused and the game is unchanged.
+     *
+     * @param player   The player to move.
+     * @param position The position asked for.
+     * @param reason   Why the move was refused.
+     */
+    default void moveRejected(Player player, Position position, String reason) {
+    }
+
+    /**
+     * The last move was taken back.
+     *
+     * @param player   The player who had made it, to move again.
+     * @param position The position of the removed disc.
+     * @param flips    The number of discs flipped back.
+     */
+    default void moveUndone(Player player, Position position, int flips) {
+    }
+
+    /**
+     * The side to move has no legal move, which ends the game.
+     *
+     * @param winner        The winner; player 1 wins a draw.
+     * @param player1Discs  Player 1's final number of discs.
+     * @param player2Discs  Player 2's final number of discs.
+     */
+    default void gameOver(Player winner, int player1Discs, int player2Discs) {
+    }
+}
@@ -0,0 +1,143 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the {@link GameRecord}s of a log written by {@link GameLogWriter}.
+ * Only a window of the file is mapped at a time, moving forward as records are
+ * read, so a log of any size is scanned in constant memory.
+ * <p>
+ * Usage: {@code java GameLogReader <log> [--replay] [--print n]} prints the
+ * number of games and plies and the scan rate; {@code --replay} also replays
+ * every game through {@link GameLogic} and counts the wins, and
+ * {@code --print} lists the first n games.
+ */
+public class GameLogReader implements Closeable {
+    private static final long WINDOW = 64L << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    public GameLogReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        map(0);
+    }
+
+    private void map(long position) throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+    }
+
+    /**
+     * Reads the next game into the record.
+     *
+     * @return false at the end of the log.
+     */
+    public boolean next(GameRecord record) throws IOException {
+        if (record.read(window))
+            return true;
+        // The record may cross the end of the window: move the window up to it
+        long offset = getOffset();
+        if (windowStart + window.limit() >= size || offset == windowStart)
+            return false;
+        map(offset);
+        return record.read(window);
+    }
+
+    /**
+     * Gets the file offset of the next record.
+     */
+    public long getOffset() {
+        return windowStart + window.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Gets the offset just past the last complete record of a log, or 0 if the
+     * file does not exist. A log that was not closed properly can have unused
+     * mapped space after its data.
+     */
+    static long dataEnd(Path file) throws IOException {
+        if (!Files.exists(file))
+            return 0;
+        try (GameLogReader reader = new GameLogReader(file)) {
+            GameRecord record = new GameRecord();
+            while (reader.next(record)) {
+            }
+            return reader.getOffset();
+        }
+    }
+
+    private static int discs(PlayableLogic logic, Player player) {
+        int count = 0;
+        for (int row = 0; row < logic.getBoardSize(); row++) {
+            for (int col = 0; col < logic.getBoardSize(); col++) {
+                Disc disc = logic.getDiscAtPosition(Position.of(row, col));
+                if (disc != null && disc.getOwner() == player)
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java GameLogReader <log> [--replay] [--print n]");
+            return;
+        }
+        boolean replay = false;
+        long print = 0;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--replay"))
+                replay = true;
+            else if (args[i].equals("--print"))
+                print = Long.parseLong(args[++i]);
+            else
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+        }
+
+        AIPlayer.registerAllAIPlayers();
+        GameRecord record = new GameRecord();
+        GameLogic logic = replay ? new GameLogic() : null;
+        long games = 0;
+        long plies = 0;
+        long firstWins = 0;
+        long rejected = 0;
+        long start = System.nanoTime();
+        try (GameLogReader reader = new GameLogReader(Path.of(args[0]))) {
+            while (reader.next(record)) {
+                if (games < print)
+                    System.out.println(record);
+                games++;
+                plies += record.getPlies();
+                if (replay) {
+                    if (!record.replay(logic))
+                        rejected++;
+                    else if (discs(logic, logic.getFirstPlayer()) >= discs(logic, logic.getSecondPlayer()))
+                        firstWins++; // As in GameLogic.isGameFinished, the first player wins a draw
+                }
+            }
+            long bytes = reader.getOffset();
+            long nanos = System.nanoTime() - start;
+            System.out.printf("%d games, %d plies, %.1f bytes/game in %.2f s (%.0f games/s, %.1f MB/s)%n", games,
+                    plies, games == 0 ? 0.0 : (double) bytes / games, nanos / 1e9, games * 1e9 / nanos,
+                    bytes / 1e6 * 1e9 / nanos);
+            if (replay) {
+                System.out.printf("First player won %d of %d replayed games, %d records rejected%n", firstWins,
+                        games - rejected, rejected);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends {@link GameRecord}s to a log file through a memory-mapped window.
+ * The file is mapped in chunks ahead of the write position, so an append is a
+ * plain memory copy; when a record no longer fits, the next chunk is mapped at
+ * the write position. Closing the writer truncates the file to the data.
+ * <p>
+ * Opening an existing log appends after its last complete record. Appends are
+ * synchronized, so one writer can be shared by several game threads.
+ */
+public class GameLogWriter implements Closeable {
+    private static final long CHUNK = 64L << 20;
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long mappedAt;
+    private long games;
+
+    public GameLogWriter(Path file) throws IOException {
+        long end = GameLogReader.dataEnd(file);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        map(end);
+    }
+
+    private void map(long position) throws IOException {
+        if (buffer != null)
+            buffer.force();
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, CHUNK);
+        mappedAt = position;
+    }
+
+    public synchronized void append(GameRecord record) throws IOException {
+        if (buffer == null)
+            throw new IOException("Game log is closed");
+        if (buffer.remaining() < record.size())
+            map(mappedAt + buffer.position());
+        record.write(buffer);
+        games++;
+    }
+
+    /**
+     * Gets the number of games appended by this writer.
+     */
+    public synchronized long getGames() {
+        return games;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (buffer == null)
+            return;
+        long end = mappedAt + buffer.position();
+        buffer.force();
+        buffer = null;
+        channel.truncate(end);
+        channel.close();
+    }
+}
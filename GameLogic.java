@@ -7,206 +7,530 @@ public class GameLogic extends Position implements PlayableLogic {
             { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 },
             { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 }
     };
-    private Stack<Move> moveHistory;
     private boolean firstPlayerTurn;
     private Player player1;
     private Player player2;
     private List<Position> possibleNextMoves;
-    private int tempCount;
-    private Set<Position> bombPos;
+
+    // Scratch space for flip calculation, sized once per board so no call allocates.
+    // A square is in the current flip set / has exploded when its mark equals markStamp.
+    private final int[] flipBuffer;
+    private final int[] flipMark;
+    private final int[] explodedMark;
+    private final int[] rayBombs;
+    private final int[] bombStack;
+    private int bombTop;
+    private int flipCount;
+    // Bombs exploded and discs flipped by the rays alone in the last computeFlips
+    private int bombCount;
+    private int rayFlipCount;
+    private int markStamp;
+    // The disc on each square, in square order, as its code (see Disc.getCode, 0 when
+    // empty), the canonical positions of the squares, and the squares around each square:
+    // the neighbours of square s are neighbourSquares[neighbourStart[s] .. neighbourStart[s + 1])
+    private final byte[] discs;
+    private final Position[] cells;
+    private final int[] neighbourStart;
+    private final int[] neighbourSquares;
+    // Precomputed rays: walking from square s in direction d visits
+    // raySquares[rayStart[s * 8 + d] .. rayStart[s * 8 + d + 1]) in order
+    private final int[] rayStart;
+    private final int[] raySquares;
+    // Bitset of the occupied squares
+    private final long[] occupied;
+    // The same board as bit planes in BoardSnapshot's layout (side 0, side 1, bombs,
+    // unflippables, occupied.length words each), kept in step with discs
+    private final long[] planes;
+    // Replaced, never modified, after every change of the position
+    private volatile BoardSnapshot snapshot;
+
+    // Legal-move cache for both sides, kept current by locate_disc and undoLastMove,
+    // as bitsets over squares
+    private final long[][] legal;
+    private boolean validMovesDirty;
+    // countFlips results for the side to move, valid while flipCountVersion[sq] == boardVersion
+    private final int[] flipCountCache;
+    private final int[] flipCountVersion;
+    private int boardVersion;
+
+    // Zobrist key of the whole game state, see Zobrist
+    private long zobristKey;
+
+    // Undo journal. Each ply pushes one entry per flipped square (square << 3 | prior
+    // type << 1 | prior owner), then a frame of placed square, flip count and the mover's
+    // bomb and unflippable counters before the move. keyJournal holds the key before each ply.
+    private int[] journal;
+    private int journalTop;
+    private long[] keyJournal;
+    private int ply;
+
+    // Copy-on-write, so firing needs no lock and costs one length check with no listeners
+    private volatile GameListener[] listeners = new GameListener[0];
 
     public GameLogic() {
-        this(8, 0, 0, true, "GreedyAI"); // Default: Player 1 human, Player 2 is GreedyAI
+        // Default: Player 1 human, Player 2 is GreedyAI
+        this(Integer.getInteger("reversi.boardSize", 8), 0, 0, true, "GreedyAI");
     }
 
+    /**
+     * Creates a game on a boardSize x boardSize board, which must be even and
+     * between 4 and 32.
+     */
     public GameLogic(int boardSize, int row, int col, boolean isPlayerOneHuman, String player2AIType) {
+        this(boardSize, row, col, isPlayerOneHuman ? new HumanPlayer(true) : AIPlayer.createAIPlayer("GreedyAI", true),
+                AIPlayer.createAIPlayer(player2AIType, false));
+    }
+
+    private GameLogic(int boardSize, int row, int col, Player player1, Player player2) {
         super(row, col);
+        if (boardSize < 4 || boardSize > 32 || boardSize % 2 != 0)
+            throw new IllegalArgumentException("Board size must be even and between 4 and 32: " + boardSize);
         this.board = new Position[boardSize][boardSize];
-        this.moveHistory = new Stack<>();
         this.firstPlayerTurn = true;
-        this.possibleNextMoves = new ArrayList<>();
-        this.bombPos = new HashSet<>();
+        this.possibleNextMoves = new ArrayList<>(boardSize * boardSize);
+        this.flipBuffer = new int[boardSize * boardSize];
+        this.flipMark = new int[boardSize * boardSize];
+        this.explodedMark = new int[boardSize * boardSize];
+        this.rayBombs = new int[boardSize];
+        this.bombStack = new int[boardSize * boardSize];
+        this.discs = new byte[boardSize * boardSize];
+        this.cells = new Position[boardSize * boardSize];
+        for (int square = 0; square < boardSize * boardSize; square++) {
+            cells[square] = Position.of(square / boardSize, square % boardSize);
+            board[square / boardSize][square % boardSize] = cells[square];
+        }
+        this.neighbourStart = new int[boardSize * boardSize + 1];
+        this.neighbourSquares = new int[8 * boardSize * boardSize];
+        this.rayStart = new int[8 * boardSize * boardSize + 1];
+        this.raySquares = new int[rayLength(boardSize)];
+        buildTables();
+        this.occupied = new long[(boardSize * boardSize + 63) / 64];
+        this.planes = new long[BoardSnapshot.LEGAL * occupied.length];
+        this.legal = new long[2][occupied.length];
+        this.flipCountCache = new int[boardSize * boardSize];
+        this.flipCountVersion = new int[boardSize * boardSize];
+        this.journal = new int[4 * boardSize * boardSize];
+        this.keyJournal = new long[boardSize * boardSize];
 
-        // Initialize players
-        this.player1 = isPlayerOneHuman ? new HumanPlayer(true) : AIPlayer.createAIPlayer("GreedyAI", true);
-        this.player2 = AIPlayer.createAIPlayer(player2AIType, false);
+        this.player1 = player1;
+        this.player2 = player2;
 
         // Initialize the board with starting positions
         initializeBoard();
     }
 
-    private void initializeBoard() {
-        for (int row = 0; row < board.length; row++) {
-            for (int col = 0; col < board.length; col++) {
-                board[row][col] = new Position(row, col, player1, player2);
+    // Total length of all rays on the board
+    private int rayLength(int size) {
+        int length = 0;
+        for (int square = 0; square < size * size; square++) {
+            for (int[] dir : directions) {
+                int r = square / size + dir[0];
+                int c = square % size + dir[1];
+                for (; r >= 0 && r < size && c >= 0 && c < size; r += dir[0], c += dir[1])
+                    length++;
             }
         }
-        try {
-            board[3][3].setDisc(new SimpleDisc(player1));
-            board[4][4].setDisc(new SimpleDisc(player1));
-            board[3][4].setDisc(new SimpleDisc(player2));
-            board[4][3].setDisc(new SimpleDisc(player2));
+        return length;
+    }
+
+    private void buildTables() {
+        int size = board.length;
+        int neighbours = 0;
+        int rays = 0;
+        for (int square = 0; square < size * size; square++) {
+            neighbourStart[square] = neighbours;
+            for (int d = 0; d < directions.length; d++) {
+                int[] dir = directions[d];
+                int r = square / size + dir[0];
+                int c = square % size + dir[1];
+                if (r >= 0 && r < size && c >= 0 && c < size)
+                    neighbourSquares[neighbours++] = r * size + c;
+                rayStart[square * 8 + d] = rays;
+                for (; r >= 0 && r < size && c >= 0 && c < size; r += dir[0], c += dir[1])
+                    raySquares[rays++] = r * size + c;
+            }
+        }
+        neighbourStart[size * size] = neighbours;
+        rayStart[size * size * 8] = rays;
+    }
+
+    private boolean isOccupied(int square) {
+        return (occupied[square >>> 6] & (1L << square)) != 0;
+    }
+
+    // Disc codes: 1 + 2 * type + side, so flipping a disc just toggles the side bit
+    private static byte code(int type, int side) {
+        return (byte) (1 + 2 * type + side);
+    }
 
-        } catch (OccupiedPositionException ignored) {
+    private static int sideOf(int code) {
+        return (code - 1) & 1;
+    }
+
+    private static int typeOf(int code) {
+        return (code - 1) >> 1;
+    }
+
+    // The side of player in this game, or -1 if it does not play here
+    private int sideOf(Player player) {
+        return player == player1 ? 0 : player == player2 ? 1 : -1;
+    }
+
+    // Sets or clears the bit of square in the planes of the disc with the given code
+    private void togglePlanes(int square, int code) {
+        int words = occupied.length;
+        long bit = 1L << square;
+        int word = square >>> 6;
+        planes[sideOf(code) * words + word] ^= bit;
+        if (typeOf(code) == BitBoard.BOMB)
+            planes[BoardSnapshot.BOMBS * words + word] ^= bit;
+        else if (typeOf(code) == BitBoard.UNFLIPPABLE)
+            planes[BoardSnapshot.UNFLIPPABLES * words + word] ^= bit;
+    }
+
+    private void rebuildPlanes() {
+        Arrays.fill(planes, 0);
+        for (int square = 0; square < discs.length; square++) {
+            if (discs[square] != 0)
+                togglePlanes(square, discs[square]);
+        }
+    }
+
+    // Publishes the current position to the threads reading getSnapshot
+    private void publish() {
+        int words = occupied.length;
+        long[] bits = Arrays.copyOf(planes, planes.length + words);
+        System.arraycopy(legal[firstPlayerTurn ? 0 : 1], 0, bits, planes.length, words);
+        snapshot = new BoardSnapshot(board.length, bits, firstPlayerTurn,
+                new int[] { player1.getNumber_of_bombs(), player2.getNumber_of_bombs() },
+                new int[] { player1.getNumber_of_unflippedable(), player2.getNumber_of_unflippedable() },
+                ply, zobristKey);
+    }
+
+    /**
+     * Gets an immutable snapshot of the current position. A new one is published
+     * after every move, undo and reset, so any thread may call this while the
+     * game is being played and read a consistent board without locking.
+     */
+    public BoardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // The shared disc instance for a code
+    private Disc discOf(int code) {
+        return code == 0 ? null : (sideOf(code) == 0 ? player1 : player2).getDisc(typeOf(code));
+    }
+
+    private void initializeBoard() {
+        Arrays.fill(discs, (byte) 0);
+        // The four starting discs sit in the centre of the board
+        int size = board.length;
+        int centre = size / 2;
+        discs[(centre - 1) * size + centre - 1] = code(BitBoard.SIMPLE, 0);
+        discs[centre * size + centre] = code(BitBoard.SIMPLE, 0);
+        discs[(centre - 1) * size + centre] = code(BitBoard.SIMPLE, 1);
+        discs[centre * size + centre - 1] = code(BitBoard.SIMPLE, 1);
+        Arrays.fill(occupied, 0);
+        for (int square = 0; square < discs.length; square++) {
+            if (discs[square] != 0)
+                occupied[square >>> 6] |= 1L << square;
         }
+        rebuildPlanes();
+        rebuildMoveCache();
+        zobristKey = computeZobristKey();
+        publish();
     }
 
     @Override
     public boolean locate_disc(Position position, Disc disc) {
-        possibleNextMoves.clear();
+        if (!EngineMetrics.ENABLED)
+            return placeDisc(position, disc);
+        long start = System.nanoTime();
+        boolean placed = placeDisc(position, disc);
+        EngineMetrics.locateDisc.record(System.nanoTime() - start);
+        return placed;
+    }
 
+    private boolean placeDisc(Position position, Disc disc) {
         // Determine the current player
         Player currentPlayer = firstPlayerTurn ? player1 : player2;
 
         // Check if the special disc can be placed
         if (disc instanceof BombDisc) {
             if (currentPlayer.getNumber_of_bombs() <= 0) {
-                System.out.println("No bombs remaining for the current player.");
+                fireMoveRejected(currentPlayer, position, "No bombs remaining for the current player.");
                 return false;
             }
         } else if (disc instanceof UnflippableDisc) {
             if (currentPlayer.getNumber_of_unflippedable() <= 0) {
-                System.out.println("No unflippable discs remaining for the current player.");
+                fireMoveRejected(currentPlayer, position, "No unflippable discs remaining for the current player.");
                 return false;
             }
         }
 
         // Validate the move
+        if (!isOnBoard(position)) {
+            fireMoveRejected(currentPlayer, position, "Invalid move: The position is off the board.");
+            return false;
+        }
         if (!isValidMove(position)) {
-            System.out.println("Invalid move: The position is either occupied or cannot flip any discs.");
+            fireMoveRejected(currentPlayer, position,
+                    "Invalid move: The position is either occupied or cannot flip any discs.");
             return false;
         }
 
         // Try placing the disc and updating the board
         try {
-            // Assign ownership to the disc
-            disc.setOwner(currentPlayer);
-
-            // Calculate the move, including flipped positions
-            Move nextMove = calculateNextMove(position, currentPlayer);
-
-            // Place the disc
-            board[position.row()][position.col()].setDisc(disc);
-            System.out.printf("%s placed a %s at %s%n", currentPlayer.isPlayerOne() ? "Player 1" : "Player 2",
-                    disc.getClass().getSimpleName(), position.toString());
-
-            // Flip the discs affected by this move
-            for (Position flipPos : nextMove.getFlips()) {
-                System.out.printf("%s flipped the %s at %s%n",
-                        currentPlayer.isPlayerOne() ? "Player 1" : "Player 2",
-                        board[flipPos.row()][flipPos.col()].getDisc().getClass().getSimpleName(),
-                        flipPos.toString());
-                flipPos.flipDisc();
+            // The board holds the current player's own disc of this type
+            Disc placed = currentPlayer.getDisc(BitBoard.typeOf(disc));
+
+            // Calculate the discs flipped by this move
+            int size = board.length;
+            int square = position.row() * size + position.col();
+            int count = computeFlips(position.row(), position.col(), currentPlayer);
+
+            makeMove(square, placed, count);
+            if (EngineMetrics.ENABLED) {
+                EngineMetrics.flips.add(count);
+                if (bombCount > 0)
+                    EngineMetrics.bombChains.record(bombCount);
             }
+            if (listeners.length != 0)
+                fireMovePlayed(currentPlayer, square, placed, count);
+            return true;
+        } catch (Exception e) {
+            fireMoveRejected(currentPlayer, position, "An error occurred while placing the disc: " + e.getMessage());
+            return false;
+        }
+    }
 
-            // Reduce special disc counters if applicable
-            if (disc instanceof BombDisc) {
-                currentPlayer.reduce_bomb();
+    /**
+     * Registers a listener for this game's events. With no listeners registered,
+     * firing an event costs a single check.
+     */
+    public synchronized void addGameListener(GameListener listener) {
+        GameListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
 
-            } else if (disc instanceof UnflippableDisc) {
-                currentPlayer.reduce_unflippedable();
+    public synchronized void removeGameListener(GameListener listener) {
+        List<GameListener> updated = new ArrayList<>(Arrays.asList(listeners));
+        updated.remove(listener);
+        listeners = updated.toArray(new GameListener[0]);
+    }
 
+    // The flipped squares are the last count entries of the journal
+    private void fireMovePlayed(Player player, int square, Disc disc, int count) {
+        int bombs = bombCount;
+        int bombFlips = count - rayFlipCount;
+        int from = journalTop - 4 - count;
+        for (GameListener listener : listeners) {
+            listener.movePlayed(player, cells[square], disc, count);
+            for (int i = from; i < from + count; i++) {
+                int flipped = journal[i] >>> 3;
+                listener.discFlipped(player, cells[flipped], discOf(discs[flipped]));
             }
+            if (bombs > 0)
+                listener.bombChain(player, bombs, bombFlips);
+        }
+    }
 
-            // Save the move in history and switch the turn
-            moveHistory.push(nextMove);
-            firstPlayerTurn = !firstPlayerTurn;
+    private void fireMoveRejected(Player player, Position position, String reason) {
+        for (GameListener listener : listeners)
+            listener.moveRejected(player, position, reason);
+    }
 
-            return true;
-        } catch (Exception e) {
-            System.out.println("An error occurred while placing the disc: " + e.getMessage());
-            return false;
+    // Plays the disc, already owned by the side to move, at square, flipping the first count
+    // squares of flipBuffer, and journals everything undoLastMove needs to take it back
+    private void makeMove(int square, Disc disc, int count) throws OccupiedPositionException {
+        int side = firstPlayerTurn ? 0 : 1;
+        Player currentPlayer = firstPlayerTurn ? player1 : player2;
+        int type = BitBoard.typeOf(disc);
+        if (journalTop + count + 4 > journal.length)
+            journal = Arrays.copyOf(journal, Math.max(2 * journal.length, journalTop + count + 4));
+        if (ply == keyJournal.length)
+            keyJournal = Arrays.copyOf(keyJournal, 2 * keyJournal.length);
+
+        // Place the disc
+        if (discs[square] != 0)
+            throw new OccupiedPositionException("this position is not empty");
+        discs[square] = code(type, side);
+        occupied[square >>> 6] |= 1L << square;
+        togglePlanes(square, discs[square]);
+        long key = zobristKey ^ Zobrist.disc(side, type, square) ^ Zobrist.sideToMove(1);
+
+        // Flip the discs affected by this move
+        int from = journalTop;
+        for (int i = 0; i < count; i++) {
+            int flipped = flipBuffer[i];
+            int flippedCode = discs[flipped];
+            int flippedType = typeOf(flippedCode);
+            journal[journalTop++] = flipped << 3 | (flippedCode - 1);
+            discs[flipped] = code(flippedType, side);
+            flipPlanes(flipped);
+            key ^= Zobrist.flip(flippedType, flipped);
+        }
+        journal[journalTop++] = square;
+        journal[journalTop++] = count;
+        journal[journalTop++] = currentPlayer.getNumber_of_bombs();
+        journal[journalTop++] = currentPlayer.getNumber_of_unflippedable();
+
+        // Reduce special disc counters if applicable
+        if (type == BitBoard.BOMB) {
+            key ^= Zobrist.bombs(side, currentPlayer.getNumber_of_bombs())
+                    ^ Zobrist.bombs(side, currentPlayer.getNumber_of_bombs() - 1);
+            currentPlayer.reduce_bomb();
+        } else if (type == BitBoard.UNFLIPPABLE) {
+            key ^= Zobrist.unflippables(side, currentPlayer.getNumber_of_unflippedable())
+                    ^ Zobrist.unflippables(side, currentPlayer.getNumber_of_unflippedable() - 1);
+            currentPlayer.reduce_unflippedable();
         }
+
+        // Save the prior key and switch the turn
+        keyJournal[ply++] = zobristKey;
+        zobristKey = key;
+        firstPlayerTurn = !firstPlayerTurn;
+        updateMoveCache(square, from, count);
+        publish();
+    }
+
+    // Moves a flipped square from one side's plane to the other's
+    private void flipPlanes(int square) {
+        long bit = 1L << square;
+        int word = square >>> 6;
+        planes[word] ^= bit;
+        planes[occupied.length + word] ^= bit;
     }
 
     // creating a new move for position
     public Move calculateNextMove(Position newDiscPos, Player movePlayer) {
-        Set<Position> flippedPos = new HashSet<>();
-        for (int[] dir : directions) {
-            Set<Position> tempFlipped = new HashSet<>();
-            this.bombPos.clear();
-            int row = newDiscPos.row() + dir[0];
-            int col = newDiscPos.col() + dir[1];
-
-            while (row >= 0 && row < board.length && col >= 0 && col < board[row].length) {
-                try {
-                    Disc neighborDisc = getDiscAtPosition(new Position(row, col));
-                    if (board[row][col].getDisc() == null) {
-                        break;
-                    }
-                    if (neighborDisc.getOwner() == movePlayer) {
-                        for (Position bomb : bombPos) {
-                            tempFlipped.addAll(bombFlipped(bomb));
-                        }
-                        flippedPos.addAll(tempFlipped);
-                        break;
-                    } else {
-                        if (!(neighborDisc instanceof UnflippableDisc)) {
-                            tempFlipped.add(board[row][col]);
-                            if (neighborDisc instanceof BombDisc) {
-                                bombPos.add(board[row][col].clone());
-                            }
-                        }
+        if (EngineMetrics.ENABLED)
+            EngineMetrics.calculateNextMoveCalls.increment();
+        int count = computeFlips(newDiscPos.row(), newDiscPos.col(), movePlayer);
+        return new Move(movePlayer, null, newDiscPos, Arrays.copyOf(flipBuffer, count), this);
+    }
+
+    /**
+     * Fills {@code flipBuffer} with the squares (row * size + col) that would be
+     * flipped if movePlayer placed a disc at (row, col), bomb chains included.
+     * Nothing is allocated.
+     *
+     * @return the number of squares written to {@code flipBuffer}.
+     */
+    private int computeFlips(int row, int col, Player movePlayer) {
+        int side = sideOf(movePlayer);
+        int origin = (row * board.length + col) * 8;
+        nextMarkStamp();
+        flipCount = 0;
+        bombTop = 0;
+        bombCount = 0;
+        for (int d = 0; d < 8; d++) {
+            int rayFlips = flipCount;
+            int bombs = 0;
+            boolean closed = false;
+            for (int i = rayStart[origin + d]; i < rayStart[origin + d + 1]; i++) {
+                int square = raySquares[i];
+                if (!isOccupied(square)) {
+                    break;
+                }
+                int neighbor = discs[square];
+                if (sideOf(neighbor) == side) {
+                    closed = true;
+                    break;
+                }
+                if (typeOf(neighbor) != BitBoard.UNFLIPPABLE) {
+                    addFlip(square);
+                    if (typeOf(neighbor) == BitBoard.BOMB) {
+                        rayBombs[bombs++] = square;
                     }
-                    row += dir[0];
-                    col += dir[1];
-                } catch (NullPointerException ignored) {
                 }
             }
+            if (!closed) {
+                // The ray is not capped by one of our discs: drop what it added
+                while (flipCount > rayFlips) {
+                    flipMark[flipBuffer[--flipCount]] = 0;
+                }
+                continue;
+            }
+            for (int i = 0; i < bombs; i++) {
+                queueBomb(rayBombs[i]);
+            }
         }
-        Move possibleNextMove = new Move(movePlayer, null, newDiscPos, flippedPos, this.board);
-        this.tempCount = Math.max(possibleNextMove.getCount(), this.tempCount);
-        return possibleNextMove;
+        // All captured bombs explode together, once each, whichever rays captured them
+        rayFlipCount = flipCount;
+        resolveBombs(side);
+        return flipCount;
     }
 
-    public Set<Position> bombFlipped(Position pos) {
-        Set<Position> toFlip = new HashSet<>();
-        Queue<Position> toProcess = new LinkedList<>();
-        Set<Position> visited = new HashSet<>();
-
-        // Start with the initial bomb position
-        toProcess.add(pos);
-
-        while (!toProcess.isEmpty()) {
-            Position current = toProcess.poll();
-
-            // Skip already processed positions
-            if (visited.contains(current))
-                continue;
-
-            visited.add(current);
-
-            for (int[] dir : directions) {
-                int row = current.row() + dir[0];
-                int col = current.col() + dir[1];
-
-                // Ensure the position is within bounds
-                if (row >= 0 && row < board.length && col >= 0 && col < board[row].length) {
-                    Position neighbor = board[row][col];
-                    Disc neighborDisc = neighbor.getDisc();
-
-                    if (neighborDisc != null
-                            && neighborDisc.getOwner() != (firstPlayerTurn ? player1 : player2)
-                            && !(neighborDisc instanceof UnflippableDisc)) {
+    private void addFlip(int square) {
+        if (flipMark[square] != markStamp) {
+            flipMark[square] = markStamp;
+            flipBuffer[flipCount++] = square;
+        }
+    }
 
-                        // Add the neighbor to the set of discs to flip
-                        toFlip.add(neighbor);
+    private void queueBomb(int square) {
+        if (explodedMark[square] != markStamp) {
+            explodedMark[square] = markStamp;
+            bombStack[bombTop++] = square;
+            bombCount++;
+        }
+    }
 
-                        // If it's a BombDisc, add it to the processing queue for chain reaction
-                        if (neighborDisc instanceof BombDisc) {
-                            toProcess.add(neighbor);
-                        }
-                    }
-                }
+    // Flood fill from the queued bombs: flippable opponent neighbours flip, neighbouring bombs
+    // explode in turn
+    private void resolveBombs(int side) {
+        while (bombTop > 0) {
+            int current = bombStack[--bombTop];
+            for (int i = neighbourStart[current]; i < neighbourStart[current + 1]; i++) {
+                int square = neighbourSquares[i];
+                int neighbor = discs[square];
+                if (neighbor == 0 || sideOf(neighbor) == side || typeOf(neighbor) == BitBoard.UNFLIPPABLE)
+                    continue;
+                addFlip(square);
+                if (typeOf(neighbor) == BitBoard.BOMB)
+                    queueBomb(square);
             }
         }
+    }
 
+    private void nextMarkStamp() {
+        if (++markStamp == Integer.MAX_VALUE) {
+            Arrays.fill(flipMark, 0);
+            Arrays.fill(explodedMark, 0);
+            markStamp = 1;
+        }
+    }
+
+    public Set<Position> bombFlipped(Position pos) {
+        nextMarkStamp();
+        flipCount = 0;
+        bombTop = 0;
+        queueBomb(pos.row() * board.length + pos.col());
+        resolveBombs(firstPlayerTurn ? 0 : 1);
+        Set<Position> toFlip = new HashSet<>();
+        for (int i = 0; i < flipCount; i++) {
+            toFlip.add(cells[flipBuffer[i]]);
+        }
         return toFlip;
     }
 
+    // Whether the position is a square of this board; checked before computing a
+    // square index, which would otherwise alias an off-board position onto a real square
+    private boolean isOnBoard(Position position) {
+        int size = board.length;
+        return position.row() >= 0 && position.row() < size && position.col() >= 0 && position.col() < size;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the position is off the board.
+     */
     @Override
     public Disc getDiscAtPosition(Position position) {
-        return board[position.getRow()][position.getCol()].getDisc();
+        if (!isOnBoard(position))
+            throw new IllegalArgumentException("Position off the board: " + position);
+        return discOf(discs[position.row() * board.length + position.col()]);
     }
 
     @Override
@@ -216,39 +540,129 @@ public class GameLogic extends Position implements PlayableLogic {
 
     @Override
     public List<Position> ValidMoves() {
-        this.possibleNextMoves.clear();
-        for (int row = 0; row < board.length; row++) {
-            for (int col = 0; col < board[row].length; col++) {
-                if (isValidMove(board[row][col])) {
-                    this.possibleNextMoves.add(board[row][col]);
+        if (!EngineMetrics.ENABLED)
+            return validMoves();
+        long start = System.nanoTime();
+        List<Position> moves = validMoves();
+        EngineMetrics.validMoves.record(System.nanoTime() - start);
+        return moves;
+    }
+
+    private List<Position> validMoves() {
+        if (validMovesDirty) {
+            this.possibleNextMoves.clear();
+            long[] moves = legal[firstPlayerTurn ? 0 : 1];
+            for (int word = 0; word < moves.length; word++) {
+                for (long bits = moves[word]; bits != 0; bits &= bits - 1) {
+                    int square = word * 64 + Long.numberOfTrailingZeros(bits);
+                    this.possibleNextMoves.add(cells[square]);
                 }
             }
+            validMovesDirty = false;
         }
         return this.possibleNextMoves;
     }
 
     private boolean isValidMove(Position position) {
-        if (getDiscAtPosition(position) != null)
+        if (!isOnBoard(position))
             return false;
+        int square = position.row() * board.length + position.col();
+        return (legal[firstPlayerTurn ? 0 : 1][square >>> 6] & (1L << square)) != 0;
+    }
 
-        try {
-            Move nextMove = calculateNextMove(position, firstPlayerTurn ? player1 : player2);
-            return (nextMove.getCount() > 0);
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
+    @Override
+    public int countFlips(Position position) {
+        if (!isOnBoard(position))
+            return 0;
+        int square = position.row() * board.length + position.col();
+        if (flipCountVersion[square] != boardVersion) {
+            flipCountCache[square] = computeFlips(position.row(), position.col(),
+                    firstPlayerTurn ? player1 : player2);
+            flipCountVersion[square] = boardVersion;
+        }
+        return flipCountCache[square];
+    }
+
+    // Recomputes the legality of every empty square, for both sides
+    private void rebuildMoveCache() {
+        int squares = board.length * board.length;
+        for (int square = 0; square < squares; square++) {
+            refreshSquare(square);
+        }
+        invalidateMoveCache();
+    }
+
+    // After a move or undo, only empty squares whose rays cross a changed square can change
+    // legality: walking out from each changed square, the first empty square in every
+    // direction is the only one whose ray reaches it.
+    // The changed squares are the placed square and the count flips journalled from index from.
+    private void updateMoveCache(int square, int from, int count) {
+        touchSquare(square);
+        for (int i = from; i < from + count; i++) {
+            touchSquare(journal[i] >>> 3);
+        }
+        invalidateMoveCache();
+    }
+
+    private void touchSquare(int square) {
+        refreshSquare(square);
+        for (int ray = square * 8; ray < square * 8 + 8; ray++) {
+            for (int i = rayStart[ray]; i < rayStart[ray + 1]; i++) {
+                if (!isOccupied(raySquares[i])) {
+                    refreshSquare(raySquares[i]);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void refreshSquare(int square) {
+        long bit = 1L << square;
+        int word = square >>> 6;
+        legal[0][word] &= ~bit;
+        legal[1][word] &= ~bit;
+        if (isOccupied(square) || !hasNeighborDisc(square))
+            return;
+        if (hasCapture(square, 0))
+            legal[0][word] |= bit;
+        if (hasCapture(square, 1))
+            legal[1][word] |= bit;
+    }
+
+    private boolean hasNeighborDisc(int square) {
+        for (int i = neighbourStart[square]; i < neighbourStart[square + 1]; i++) {
+            if (isOccupied(neighbourSquares[i]))
+                return true;
         }
         return false;
     }
 
-    @Override
-    public int countFlips(Position position) {
-        try {
-            Move nextMove = calculateNextMove(position, firstPlayerTurn ? player1 : player2);
-            return nextMove.getCount();
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
+    // A move is legal when some ray is capped by one of the player's discs and holds a
+    // flippable opponent disc; bomb chains only ever add to such a capture.
+    private boolean hasCapture(int square, int side) {
+        for (int ray = square * 8; ray < square * 8 + 8; ray++) {
+            boolean flippable = false;
+            for (int i = rayStart[ray]; i < rayStart[ray + 1]; i++) {
+                if (!isOccupied(raySquares[i]))
+                    break;
+                int neighbor = discs[raySquares[i]];
+                if (sideOf(neighbor) == side) {
+                    if (flippable)
+                        return true;
+                    break;
+                }
+                flippable |= typeOf(neighbor) != BitBoard.UNFLIPPABLE;
+            }
+        }
+        return false;
+    }
+
+    private void invalidateMoveCache() {
+        validMovesDirty = true;
+        if (++boardVersion == Integer.MAX_VALUE) {
+            Arrays.fill(flipCountVersion, 0);
+            boardVersion = 1;
         }
-        return 0;
     }
 
     @Override
@@ -265,6 +679,54 @@ public class GameLogic extends Position implements PlayableLogic {
     public void setPlayers(Player player1, Player player2) {
         this.player1 = player1;
         this.player2 = player2;
+        rebuildMoveCache();
+        zobristKey = computeZobristKey();
+        publish();
+    }
+
+    /**
+     * Creates a copy of the current position that can be read, or played on,
+     * without touching this game, e.g. by an AI thinking on another thread. The
+     * players are shared rather than copied, so moves played on the copy still
+     * use up their special discs. The undo history and listeners are not copied.
+     */
+    public GameLogic copy() {
+        GameLogic copy = new GameLogic(board.length, row(), col(), player1, player2);
+        System.arraycopy(discs, 0, copy.discs, 0, discs.length);
+        System.arraycopy(occupied, 0, copy.occupied, 0, occupied.length);
+        System.arraycopy(planes, 0, copy.planes, 0, planes.length);
+        copy.firstPlayerTurn = firstPlayerTurn;
+        copy.rebuildMoveCache();
+        copy.zobristKey = zobristKey;
+        copy.publish();
+        return copy;
+    }
+
+    /**
+     * Gets the 64-bit Zobrist key of the game state: every disc's owner and type,
+     * the side to move and both players' remaining special discs. It is updated
+     * incrementally by {@link #locate_disc} and restored from the journal by
+     * {@link #undoLastMove}.
+     *
+     * @return The position key.
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    private long computeZobristKey() {
+        int size = board.length;
+        long key = Zobrist.sideToMove(firstPlayerTurn ? 0 : 1);
+        for (int square = 0; square < size * size; square++) {
+            int code = discs[square];
+            if (code != 0)
+                key ^= Zobrist.disc(sideOf(code), typeOf(code), square);
+        }
+        key ^= Zobrist.bombs(0, player1.getNumber_of_bombs())
+                ^ Zobrist.unflippables(0, player1.getNumber_of_unflippedable());
+        key ^= Zobrist.bombs(1, player2.getNumber_of_bombs())
+                ^ Zobrist.unflippables(1, player2.getNumber_of_unflippedable());
+        return key;
     }
 
     @Override
@@ -277,15 +739,12 @@ public class GameLogic extends Position implements PlayableLogic {
         if (ValidMoves().isEmpty()) {
             int player1Discs = getNumberOfDiscs(player1);
             int player2Discs = getNumberOfDiscs(player2);
-            if (player1Discs >= player2Discs) {
-                player1.addWin();
-                System.out.println(
-                        "Player 1 wins with " + player1Discs + " discs! Player 2 had " + player2Discs + " discs.");
-            } else {
-                player2.addWin();
-                System.out.println(
-                        "Player 2 wins with " + player2Discs + " discs! Player 1 had " + player1Discs + " discs.");
-            }
+            Player winner = player1Discs >= player2Discs ? player1 : player2;
+            winner.addWin();
+            if (EngineMetrics.ENABLED)
+                EngineMetrics.gamesCompleted.increment();
+            for (GameListener listener : listeners)
+                listener.gameOver(winner, player1Discs, player2Discs);
             return true;
         }
         return false;
@@ -293,11 +752,10 @@ public class GameLogic extends Position implements PlayableLogic {
 
     private int getNumberOfDiscs(Player player) {
         int count = 0;
-        for (int row = 0; row < board.length; row++) {
-            for (int col = 0; col < board[row].length; col++) {
-                if (board[row][col].getDisc() != null && board[row][col].getDisc().getOwner() == player)
-                    count++;
-            }
+        int side = sideOf(player);
+        for (byte code : discs) {
+            if (code != 0 && sideOf(code) == side)
+                count++;
         }
         return count;
     }
@@ -305,58 +763,83 @@ public class GameLogic extends Position implements PlayableLogic {
     @Override
     public void reset() {
         // Reset the board and reinitialize it with the starting positions
-        for (int row = 0; row < board.length; row++) {
-            for (int col = 0; col < board[row].length; col++)
-                board[row][col] = null;
-        }
         player1.reset_bombs_and_unflippedable();
         player2.reset_bombs_and_unflippedable();
-        moveHistory.clear();
+        journalTop = 0;
+        ply = 0;
         firstPlayerTurn = true;
         initializeBoard(); // Reinitialize the board to the starting state
     }
 
+    /**
+     * Takes back the last move from the undo journal: removes the placed disc,
+     * returns every flipped disc to its previous owner and restores the mover's
+     * special-disc counters and the position key. This costs O(flips) and, unlike
+     * what {@link PlayableLogic} promises, also works when AI players are playing.
+     * Does nothing when no move has been played.
+     */
     @Override
     public void undoLastMove() {
-        if (!this.moveHistory.isEmpty()) {
-            Move lastMove = this.moveHistory.pop();
-            System.out.println("Undoing last move:");
-
-            // Get the player who made the last move
-            Player lastPlayer = firstPlayerTurn ? player2 : player1;
-
-            // Remove the placed disc
-            Disc lastDisc = board[lastMove.position().row()][lastMove.position().col()].getDisc();
-            if (lastDisc != null) {
-                System.out.println(
-                        "\tUndo: removing " + lastDisc.getType() +
-                                " from (" + lastMove.position().row() + ", " + lastMove.position().col() + ")");
-
-                board[lastMove.position().row()][lastMove.position().col()].removeDisc();
-
-                // Restore special disc counters
-                if (lastDisc instanceof BombDisc) {
-                    lastPlayer.increase_bomb();
-                } else if (lastDisc instanceof UnflippableDisc) {
-                    lastPlayer.increase_unflippedable();
-                }
-            }
-
-            // Undo the flips
-            lastMove.undo();
-
-            // Switch turn back to the player who made the last move
-            firstPlayerTurn = !firstPlayerTurn;
-
-        } else {
-            reset();// very bad solution but is working. (the 4 pos of the start wont flipped back
-                    // when undo called so reset instead)
-            System.out.println("\tNo previous move available to undo ");
+        if (ply == 0)
+            return;
+        int top = journalTop;
+        int unflippables = journal[--top];
+        int bombs = journal[--top];
+        int count = journal[--top];
+        int square = journal[--top];
+        top -= count;
+
+        // Remove the placed disc and flip the others back
+        togglePlanes(square, discs[square]);
+        discs[square] = 0;
+        occupied[square >>> 6] &= ~(1L << square);
+        for (int i = top; i < top + count; i++) {
+            discs[journal[i] >>> 3] = (byte) ((journal[i] & 7) + 1);
+            flipPlanes(journal[i] >>> 3);
         }
+
+        // Restore the special disc counters of the player who made the last move
+        Player lastPlayer = firstPlayerTurn ? player2 : player1;
+        while (lastPlayer.getNumber_of_bombs() < bombs)
+            lastPlayer.increase_bomb();
+        while (lastPlayer.getNumber_of_unflippedable() < unflippables)
+            lastPlayer.increase_unflippedable();
+
+        // Switch turn back to the player who made the last move
+        journalTop = top;
+        zobristKey = keyJournal[--ply];
+        firstPlayerTurn = !firstPlayerTurn;
+        updateMoveCache(square, top, count);
+        publish();
+        for (GameListener listener : listeners)
+            listener.moveUndone(lastPlayer, cells[square], count);
     }
 
+    /**
+     * Gets the positions of the board's squares, indexed by row and column. Use
+     * {@link #getDiscAtPosition} for what sits on them.
+     */
     public Position[][] getBoard() {
         return this.board;
     }
 
+    // Takes back the placement and flips of a Move without touching the turn, the counters
+    // or the journal, as Move.undo always has
+    boolean takeBack(Position position, int[] flips) {
+        int size = board.length;
+        int square = position.row() * size + position.col();
+        discs[square] = 0;
+        occupied[square >>> 6] &= ~(1L << square);
+        for (int flipped : flips) {
+            int code = discs[flipped];
+            if (code != 0 && typeOf(code) != BitBoard.UNFLIPPABLE)
+                discs[flipped] = code(typeOf(code), sideOf(code) ^ 1);
+        }
+        rebuildPlanes();
+        rebuildMoveCache();
+        zobristKey = computeZobristKey();
+        publish();
+        return true;
+    }
+
 }
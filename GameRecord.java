@@ -0,0 +1,187 @@
+import java.nio.ByteBuffer;
+
+/**
+ * A compact record of one game on the standard 8x8 board, as stored by
+ * {@link GameLogWriter}. Each ply takes one byte, {@code type << 6 | square},
+ * with the disc type codes of {@link BitBoard} ({@code 0xFF} marks a pass,
+ * which the current rules never produce). The record starts with a 6 byte
+ * header:
+ * <ul>
+ * <li>1 byte: player type ids, first player in the high nibble, second in the
+ * low nibble (a zero byte marks the end of the log)</li>
+ * <li>4 bytes: the game's seed, big-endian</li>
+ * <li>1 byte: the number of plies</li>
+ * </ul>
+ * A 60 ply game therefore takes 66 bytes. Records are reusable: reading into a
+ * record overwrites it.
+ */
+public class GameRecord {
+    public static final int PASS = 0xFF;
+    static final int HEADER_BYTES = 6;
+    static final int MAX_PLIES = 255;
+    static final int MAX_BYTES = HEADER_BYTES + MAX_PLIES;
+
+    // Type ids are the index in this table; never reorder it, only append (at most 15 types)
+    private static final String[] PLAYER_TYPES = { null, "HumanPlayer", "RandomAI", "GreedyAI", "AlphaBetaAI",
+            "MonteCarloAI" };
+
+    private int firstType;
+    private int secondType;
+    private int seed;
+    private int plies;
+    private final byte[] moves = new byte[MAX_PLIES];
+
+    /**
+     * Clears the record for a new game between the given player types.
+     */
+    public void start(String firstPlayerType, String secondPlayerType, int seed) {
+        this.firstType = typeId(firstPlayerType);
+        this.secondType = typeId(secondPlayerType);
+        this.seed = seed;
+        this.plies = 0;
+    }
+
+    /**
+     * Appends a ply.
+     *
+     * @param square The square, row * 8 + col.
+     * @param type   The disc type code, see {@link BitBoard#SIMPLE}.
+     */
+    public void add(int square, int type) {
+        if (square < 0 || square >= BitBoard.SQUARES || type < BitBoard.SIMPLE || type > BitBoard.UNFLIPPABLE)
+            throw new IllegalArgumentException("Cannot record square " + square + " with disc type " + type);
+        append(type << 6 | square);
+    }
+
+    public void addPass() {
+        append(PASS);
+    }
+
+    private void append(int code) {
+        if (plies == MAX_PLIES)
+            throw new IllegalStateException("A game record holds at most " + MAX_PLIES + " plies");
+        moves[plies++] = (byte) code;
+    }
+
+    public String getFirstPlayerType() {
+        return PLAYER_TYPES[firstType];
+    }
+
+    public String getSecondPlayerType() {
+        return PLAYER_TYPES[secondType];
+    }
+
+    public int getSeed() {
+        return seed;
+    }
+
+    public int getPlies() {
+        return plies;
+    }
+
+    public boolean isPass(int ply) {
+        return (moves[ply] & 0xFF) == PASS;
+    }
+
+    public int getSquare(int ply) {
+        return moves[ply] & 0x3F;
+    }
+
+    public int getType(int ply) {
+        return (moves[ply] & 0xFF) >>> 6;
+    }
+
+    /**
+     * Gets the encoded size of the record in bytes.
+     */
+    public int size() {
+        return HEADER_BYTES + plies;
+    }
+
+    void write(ByteBuffer buffer) {
+        buffer.put((byte) (firstType << 4 | secondType));
+        buffer.putInt(seed);
+        buffer.put((byte) plies);
+        buffer.put(moves, 0, plies);
+    }
+
+    /**
+     * Reads the next record from the buffer.
+     *
+     * @return false, leaving the buffer position unchanged, at the end of the log
+     *         or when the buffer does not hold a whole record.
+     */
+    boolean read(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_BYTES || buffer.get(start) == 0)
+            return false;
+        int length = buffer.get(start + HEADER_BYTES - 1) & 0xFF;
+        if (buffer.remaining() < HEADER_BYTES + length)
+            return false;
+        int types = buffer.get() & 0xFF;
+        int first = types >>> 4;
+        int second = types & 0xF;
+        if (first >= PLAYER_TYPES.length || second >= PLAYER_TYPES.length)
+            throw new IllegalStateException("Corrupt game record at byte " + start);
+        firstType = first;
+        secondType = second;
+        seed = buffer.getInt();
+        plies = buffer.get() & 0xFF;
+        buffer.get(moves, 0, plies);
+        return true;
+    }
+
+    /**
+     * Replays the game on the given logic from the start position, with two
+     * human players standing in for the recorded ones.
+     *
+     * @return false if a recorded move was rejected; the logic is left at that
+     *         position.
+     */
+    public boolean replay(GameLogic logic) {
+        logic.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+        logic.reset();
+        for (int ply = 0; ply < plies; ply++) {
+            if (isPass(ply))
+                return false; // No passes in this game: a side without moves has lost
+            Player player = logic.isFirstPlayerTurn() ? logic.getFirstPlayer() : logic.getSecondPlayer();
+            Disc disc = getType(ply) == BitBoard.BOMB ? BombDisc.of(player)
+                    : getType(ply) == BitBoard.UNFLIPPABLE ? UnflippableDisc.of(player) : SimpleDisc.of(player);
+            int square = getSquare(ply);
+            if (!logic.locate_disc(Position.of(square / BitBoard.SIZE, square % BitBoard.SIZE), disc))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the id stored for a player type name (see
+     * {@link AIPlayer#createAIPlayer}, or "HumanPlayer").
+     */
+    public static int typeId(String playerType) {
+        for (int id = 1; id < PLAYER_TYPES.length; id++) {
+            if (PLAYER_TYPES[id].equals(playerType))
+                return id;
+        }
+        throw new IllegalArgumentException("Player type has no game record id: " + playerType);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(getFirstPlayerType() + " vs " + getSecondPlayerType() + ", seed " + seed
+                + ":");
+        for (int ply = 0; ply < plies; ply++) {
+            text.append(' ');
+            if (isPass(ply)) {
+                text.append("pass");
+            } else {
+                text.append(getSquare(ply) / BitBoard.SIZE).append(',').append(getSquare(ply) % BitBoard.SIZE);
+                if (getType(ply) == BitBoard.BOMB)
+                    text.append('B');
+                else if (getType(ply) == BitBoard.UNFLIPPABLE)
+                    text.append('U');
+            }
+        }
+        return text.toString();
+    }
+}
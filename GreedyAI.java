@@ -27,7 +27,7 @@ public class GreedyAI extends AIPlayer {
                                               // position
                 maxFlips = flipsForSimple;
                 bestPosition = position;
-                bestDisc = new SimpleDisc(this);
+                bestDisc = SimpleDisc.of(this);
             }
 
             // Check BombDisc if available
@@ -36,24 +36,17 @@ public class GreedyAI extends AIPlayer {
                 if (flipsForBomb > maxFlips) {
                     maxFlips = flipsForBomb;
                     bestPosition = position;
-                    bestDisc = new BombDisc(this);
+                    bestDisc = BombDisc.of(this);
                 }
             }
 
             // Check UnflippableDisc if available (flipsForUnflippable should be 0)
             if (getNumber_of_unflippedable() > 0 && flipsForSimple == 0) {
                 bestPosition = position;
-                bestDisc = new UnflippableDisc(this);
+                bestDisc = UnflippableDisc.of(this);
             }
         }
 
-        // Update counters if a Bomb or Unflippable disc was chosen
-        if (bestDisc instanceof BombDisc) {
-            reduce_bomb();
-        } else if (bestDisc instanceof UnflippableDisc) {
-            reduce_unflippedable();
-        }
-
         return new Move(this, bestDisc, bestPosition);
     }
 
@@ -19,8 +19,9 @@ public class Main {
             // Manually register all AI player subclasses
             AIPlayer.registerAllAIPlayers();
 
-            // Create game logic
-            PlayableLogic gameLogic = new GameLogic();
+            // Create game logic, logging its events to the console
+            GameLogic gameLogic = new GameLogic();
+            gameLogic.addGameListener(new ConsoleGameListener());
 
             // Create and show the game GUI
             GUI_for_chess_like_games gui = new GUI_for_chess_like_games(gameLogic, "Reversi Game");
@@ -0,0 +1,358 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An AI player based on Monte Carlo Tree Search. It grows a UCT tree over
+ * (square, disc type) moves and scores leaves with random playouts that use the
+ * {@link RandomAI} move choice, special discs included.
+ * <p>
+ * Playouts run in parallel on a fork-join pool, all workers sharing one tree
+ * (tree parallelism). A worker adds a virtual loss to every node on its path
+ * while its playout is running, so the other workers spread out to other
+ * branches. The time budget and worker count default to the
+ * {@code reversi.searchMillis} and {@code reversi.searchThreads} system
+ * properties. Positions in the opening book are played from the book without
+ * searching. The search only runs on the standard 8x8 board; on other sizes
+ * the player makes the greedy move.
+ * <p>
+ * While the opponent thinks, {@link #ponder} keeps growing a tree for the
+ * opponent's position. After the opponent's move, the subtree under that move
+ * becomes the new root, and the search only runs for the share of the time
+ * budget that the subtree's playouts fall short of a full search; a subtree
+ * with as many playouts as a full search is played from without searching.
+ */
+public class MonteCarloAI extends AIPlayer {
+    private static final double EXPLORATION = 1.0;
+    private static final int VIRTUAL_LOSS = 1;
+    // Bounds the memory of a tree grown while pondering, which has no time budget
+    private static final int MAX_PONDER_TREE_SIZE = 2_000_000;
+
+    private final BitBoard board = new BitBoard();
+    private long timeBudgetMillis = Long.getLong("reversi.searchMillis", 500);
+    private long playoutBudget = Long.MAX_VALUE;
+    private int threads = Math.max(1, Integer.getInteger("reversi.searchThreads", 1));
+    private ForkJoinPool pool;
+    private long seed = System.nanoTime();
+
+    private long deadline;
+    private int maxTreeSize;
+    // Interrupting this thread stops the search, as when a GUI cancels a pending move
+    private Thread searchThread;
+    private final AtomicLong playouts = new AtomicLong();
+    private final AtomicInteger treeSize = new AtomicInteger();
+
+    private long lastPlayouts;
+    private long lastNanos;
+    private int lastTreeSize;
+
+    // The tree grown while pondering, and the position at its root
+    private Node ponderRoot;
+    private final BitBoard ponderBoard = new BitBoard();
+    private final BitBoard scratch = new BitBoard();
+    // The number of playouts of the last search of a move we played
+    private long playedPlayouts;
+
+    public MonteCarloAI(boolean isPlayerOne) {
+        super(isPlayerOne);
+    }
+
+    @Override
+    public Move makeMove(PlayableLogic gameStatus) {
+        stopPondering();
+        if (gameStatus.ValidMoves().isEmpty()) {
+            return null; // No move possible
+        }
+        if (gameStatus.getBoardSize() != BitBoard.SIZE)
+            return greedyMove(gameStatus);
+        Move bookMove = bookMove(gameStatus);
+        if (bookMove != null)
+            return bookMove;
+        board.load(gameStatus);
+        Node root = ponderedSubtree(board.getKey());
+        ponderRoot = null;
+        int best;
+        if (root != null && playedPlayouts > 0 && root.children != null) {
+            // Top the pondered subtree up to the size of a full search, with the
+            // matching share of the time budget
+            long missing = playedPlayouts - root.visits;
+            if (missing > 0) {
+                best = search(root, timeBudgetMillis * missing / playedPlayouts);
+            } else {
+                best = mostVisited(root);
+                lastPlayouts = 0;
+                lastNanos = 0;
+                lastTreeSize = 0;
+            }
+        } else {
+            best = search(root != null ? root : new Node(-1), timeBudgetMillis);
+            playedPlayouts = lastPlayouts;
+        }
+        int square = BitBoard.moveSquare(best);
+        return new Move(this, createDisc(BitBoard.moveType(best)),
+                Position.of(square / BitBoard.SIZE, square % BitBoard.SIZE));
+    }
+
+    /**
+     * Searches the given position, leaving it unchanged, and returns the chosen
+     * move code (see {@link BitBoard#move}), or -1 if the side to move has no
+     * legal move, that is, the game is over.
+     */
+    public int searchPosition(BitBoard position) {
+        board.copyFrom(position);
+        return search();
+    }
+
+    /**
+     * Grows a tree for the opponent's position in the background until the
+     * opponent moves, without a time budget.
+     */
+    @Override
+    public void ponder(PlayableLogic gameStatus) {
+        if (gameStatus.getBoardSize() != BitBoard.SIZE || gameStatus.ValidMoves().isEmpty())
+            return;
+        startPondering(() -> {
+            board.load(gameStatus);
+            ponderBoard.copyFrom(board);
+            Node root = new Node(-1);
+            ponderRoot = root;
+            grow(root, Long.MAX_VALUE, MAX_PONDER_TREE_SIZE);
+        });
+    }
+
+    // Finds the child of the pondered root whose position has the given key
+    private Node ponderedSubtree(long key) {
+        Node root = ponderRoot;
+        if (root == null || root.children == null)
+            return null;
+        for (Node child : root.children) {
+            scratch.copyFrom(ponderBoard);
+            scratch.play(BitBoard.moveSquare(child.move), BitBoard.moveType(child.move));
+            if (scratch.getKey() == key)
+                return child;
+        }
+        return null;
+    }
+
+    int search() {
+        return search(new Node(-1), timeBudgetMillis);
+    }
+
+    // Grows the tree under root, which stands for the loaded position, for the given
+    // time and returns the most visited move
+    private int search(Node root, long millis) {
+        long start = System.nanoTime();
+        grow(root, start + millis * 1_000_000L, Integer.MAX_VALUE);
+        lastNanos = System.nanoTime() - start;
+        return mostVisited(root);
+    }
+
+    // Runs the playout workers on root until the deadline, the playout budget or the tree size limit
+    private void grow(Node root, long deadline, int maxTreeSize) {
+        this.deadline = deadline;
+        this.maxTreeSize = maxTreeSize;
+        searchThread = Thread.currentThread();
+        playouts.set(0);
+        treeSize.set(1);
+
+        if (threads == 1) {
+            new Worker(root, seed++).run();
+        } else {
+            if (pool == null || pool.getParallelism() != threads)
+                pool = new ForkJoinPool(threads);
+            ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[threads];
+            for (int i = 0; i < threads; i++)
+                tasks[i] = pool.submit(new Worker(root, seed++));
+            for (ForkJoinTask<?> task : tasks)
+                task.join();
+        }
+
+        lastPlayouts = playouts.get();
+        lastTreeSize = treeSize.get();
+        if (EngineMetrics.ENABLED)
+            EngineMetrics.playouts.add(lastPlayouts);
+    }
+
+    // The move to play: the most visited one, or -1 if the root has no moves
+    private static int mostVisited(Node root) {
+        if (root.children == null || root.children.length == 0)
+            return -1;
+        Node best = null;
+        for (Node child : root.children) {
+            if (best == null || child.visits > best.visits)
+                best = child;
+        }
+        return best.move;
+    }
+
+    /**
+     * A tree node. Wins are counted for the player who made the move leading to
+     * the node.
+     */
+    private static final class Node {
+        private static final AtomicIntegerFieldUpdater<Node> VISITS = AtomicIntegerFieldUpdater
+                .newUpdater(Node.class, "visits");
+        private static final AtomicIntegerFieldUpdater<Node> WINS = AtomicIntegerFieldUpdater
+                .newUpdater(Node.class, "wins");
+
+        final int move;
+        volatile int visits;
+        volatile int wins;
+        volatile Node[] children;
+
+        Node(int move) {
+            this.move = move;
+        }
+    }
+
+    /**
+     * One playout thread: selects with UCT under virtual loss, expands, plays out
+     * randomly on its own board copy and backs the result up the path.
+     */
+    private final class Worker implements Runnable {
+        private final Node root;
+        private final BitBoard rootBoard = new BitBoard();
+        private final BitBoard scratch = new BitBoard();
+        private final Node[] path = new Node[BitBoard.SQUARES + 2];
+        private final int[] movers = new int[BitBoard.SQUARES + 2];
+        private final SplittableRandom random;
+
+        Worker(Node root, long seed) {
+            this.root = root;
+            this.rootBoard.copyFrom(board);
+            this.random = new SplittableRandom(seed);
+        }
+
+        @Override
+        public void run() {
+            // Always give the root a chance to be expanded before checking the budget
+            do {
+                playOnce();
+            } while (System.nanoTime() < deadline && playouts.incrementAndGet() < playoutBudget
+                    && treeSize.get() < maxTreeSize && !searchThread.isInterrupted());
+        }
+
+        private void playOnce() {
+            scratch.copyFrom(rootBoard);
+            Node node = root;
+            int length = 0;
+            Node.VISITS.addAndGet(root, VIRTUAL_LOSS);
+            path[length] = root;
+            movers[length++] = -1;
+
+            // Selection and expansion
+            while (true) {
+                Node[] children = node.children;
+                if (children == null)
+                    children = expand(node);
+                if (children.length == 0)
+                    break;
+                Node child = select(node, children);
+                movers[length] = scratch.getSideToMove();
+                scratch.play(BitBoard.moveSquare(child.move), BitBoard.moveType(child.move));
+                Node.VISITS.addAndGet(child, VIRTUAL_LOSS);
+                path[length++] = child;
+                node = child;
+                if (child.visits == VIRTUAL_LOSS)
+                    break; // A fresh node: evaluate it with a playout
+            }
+
+            // Playout
+            for (int move = RandomAI.randomMove(scratch, random); move >= 0; move = RandomAI
+                    .randomMove(scratch, random)) {
+                scratch.play(BitBoard.moveSquare(move), BitBoard.moveType(move));
+            }
+            // As in GameLogic.isGameFinished, player 1 wins a draw
+            int winner = scratch.count(0) >= scratch.count(1) ? 0 : 1;
+
+            // Backpropagation, replacing the virtual loss with the real result
+            for (int i = 0; i < length; i++) {
+                Node n = path[i];
+                Node.VISITS.addAndGet(n, 1 - VIRTUAL_LOSS);
+                if (movers[i] == winner)
+                    Node.WINS.incrementAndGet(n);
+            }
+        }
+
+        private Node[] expand(Node node) {
+            synchronized (node) {
+                if (node.children != null)
+                    return node.children;
+                int side = scratch.getSideToMove();
+                long legal = scratch.legalMoves();
+                int count = 0;
+                for (int type = BitBoard.SIMPLE; type <= BitBoard.UNFLIPPABLE; type++) {
+                    if (scratch.canPlay(type, side))
+                        count += Long.bitCount(legal);
+                }
+                Node[] children = new Node[legal == 0 ? 0 : count];
+                int i = 0;
+                for (long bits = legal; bits != 0; bits &= bits - 1) {
+                    int square = Long.numberOfTrailingZeros(bits);
+                    for (int type = BitBoard.SIMPLE; type <= BitBoard.UNFLIPPABLE; type++) {
+                        if (scratch.canPlay(type, side))
+                            children[i++] = new Node(BitBoard.move(square, type));
+                    }
+                }
+                treeSize.addAndGet(children.length);
+                node.children = children;
+                return children;
+            }
+        }
+
+        private Node select(Node parent, Node[] children) {
+            double logParent = Math.log(Math.max(1, parent.visits));
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : children) {
+                int visits = child.visits;
+                if (visits == 0)
+                    return child;
+                double value = (double) child.wins / visits + EXPLORATION * Math.sqrt(logParent / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+    }
+
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * Limits the number of playouts per move, on top of the time budget.
+     */
+    public void setPlayoutBudget(long playoutBudget) {
+        this.playoutBudget = playoutBudget;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public long getLastPlayouts() {
+        return lastPlayouts;
+    }
+
+    public long getLastPlayoutsPerSecond() {
+        return lastNanos == 0 ? 0 : lastPlayouts * 1_000_000_000L / lastNanos;
+    }
+
+    /**
+     * Gets the number of nodes in the tree built for the previous move.
+     */
+    public int getLastTreeSize() {
+        return lastTreeSize;
+    }
+
+    public String getLastSearchInfo() {
+        return String.format("%d playouts, %d playouts/s, tree size %d", lastPlayouts,
+                getLastPlayoutsPerSecond(), lastTreeSize);
+    }
+}
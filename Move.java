@@ -1,90 +1,73 @@
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
+
+public class Move {
+    private static final int[] NO_FLIPS = new int[0];
 
-public class Move extends GameLogic {
     private final Player player;
     private final Position position;
-    private final Set<Position> effectedPos;
-    private final int count;
-    private Disc disc;
-    private Position[][] board;
+    private final int[] flips;
+    private final Disc disc;
+    private final GameLogic game;
 
     /**
      * Constructs a Move object representing a player's move in the game.
-     * 
+     *
      * @param player   The player making the move.
      * @param disc     The type of disc being placed.
      * @param position The position on the board where the disc is placed.
-     * 
+     *
      */
-    public Move(Player player, Disc disc, Position position, Position[][] board) {
-        this.player = player;
-        this.position = position;
-        this.effectedPos = new HashSet<>();
-        this.count = 0;
-        this.disc = position.getDisc();
-        this.board = board;
-
-    }
-
-    public Move(Player player, Disc disc, Position position, Set<Position> effectedPos, Position[][] board) {
-        this.player = player;
-        this.position = position;
-        this.effectedPos = new HashSet<>();
-        this.effectedPos.addAll(effectedPos);
-        this.count = effectedPos.size();
-        this.disc = disc;
-        this.board = board;
-
+    public Move(Player player, Disc disc, Position position) {
+        this(player, disc, position, NO_FLIPS, null);
     }
 
-    public Move(Player player, Disc disc, Position position) {
+    /**
+     * Constructs a Move together with the discs it flips.
+     *
+     * @param flips The flipped squares, each encoded as {@code row * boardSize + col}.
+     * @param game  The game the squares refer to, used to undo the move.
+     */
+    public Move(Player player, Disc disc, Position position, int[] flips, GameLogic game) {
         this.player = player;
         this.position = position;
-        this.effectedPos = new HashSet<>();
-        this.count = 0;
+        this.flips = flips;
         this.disc = disc;
-        this.board = getBoard();
+        this.game = game;
     }
 
     public int getCount() {
-        return this.count;
+        return this.flips.length;
     }
 
-    public Set<Position> getFlips() {
-        return this.effectedPos;
+    /**
+     * Gets the flipped squares, each encoded as {@code row * boardSize + col}.
+     * The returned array must not be modified.
+     */
+    public int[] getFlipSquares() {
+        return this.flips;
     }
 
-    public boolean undo() {
-
-        this.position.removeDisc();
-        try {
-            for (Position pos : this.effectedPos) {
-                board[pos.row()][pos.col()].flipDisc();
-            }
-        } catch (UnflippableDiscException ignored) {
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
-        }
-
-        try {
-            for (Position pos : this.effectedPos) {
-                System.out.println("\tUndo: flipping back " + board[pos.row()][pos.col()].getDisc().getType() + " in ("
-                        + pos.row() + ", " + pos.col() + ")");
-                board[pos.row()][pos.col()].flipDisc();
-            }
-        } catch (UnflippableDiscException ignored) {
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
+    public List<Position> getFlips() {
+        List<Position> positions = new ArrayList<>(flips.length);
+        if (flips.length == 0)
+            return positions;
+        int size = game.getBoardSize();
+        for (int square : flips) {
+            positions.add(Position.of(square / size, square % size));
         }
-        System.out.println("");
-        return true;
+        return positions;
+    }
 
+    public boolean undo() {
+        if (game == null)
+            return false;
+        return game.takeBack(position, flips);
     }
 
     /**
      * Gets the player who made the move.
-     * 
+     *
      * @return The player.
      */
     public Player getPlayer() {
@@ -93,7 +76,7 @@ public class Move extends GameLogic {
 
     /**
      * Gets the position of this move.
-     * 
+     *
      * @return The position.
      */
     public Position position() {
@@ -108,4 +91,4 @@ public class Move extends GameLogic {
     public Disc disc() {
         return this.disc;
     }
-}
\ No newline at end of file
+}
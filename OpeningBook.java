@@ -0,0 +1,195 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An opening book: for early positions, the moves played from them in recorded
+ * games and how often each one won. It is built offline from a game log (see
+ * {@link GameLogWriter}, e.g. from a self-play {@link Tournament} run with
+ * {@code --log}) and stored as a table sorted by position key, which is memory
+ * mapped when the book is opened.
+ * <p>
+ * The file is an 8 byte header (magic, entry count) followed by 20 byte
+ * entries: Zobrist key (see {@link Zobrist}), move code (see
+ * {@link BitBoard#move}), games and wins, sorted by key. A lookup is a binary
+ * search over the mapped entries with absolute reads, so it allocates nothing.
+ * <p>
+ * Usage: {@code java OpeningBook <games.log> <book> [--plies n] [--min-games n]}
+ */
+public class OpeningBook {
+    private static final int MAGIC = 0x5256424B; // "RVBK"
+    private static final int HEADER_BYTES = 8;
+    private static final int ENTRY_BYTES = 20;
+
+    private final MappedByteBuffer table;
+    private final int entries;
+
+    private OpeningBook(MappedByteBuffer table) throws IOException {
+        if (table.capacity() < HEADER_BYTES || table.getInt(0) != MAGIC)
+            throw new IOException("Not an opening book");
+        this.table = table;
+        this.entries = table.getInt(4);
+        if ((long) HEADER_BYTES + (long) entries * ENTRY_BYTES > table.capacity())
+            throw new IOException("Opening book is truncated");
+    }
+
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Gets the book move for a position: among the moves recorded for the key,
+     * the one with the best win rate for the side that played it, the more often
+     * played one on a tie.
+     *
+     * @return the move code (see {@link BitBoard#move}), or -1 if the position
+     *         is not in the book.
+     */
+    public int lookup(long key) {
+        // Find the first entry with this key
+        int low = 0;
+        int high = entries;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keyAt(mid) < key)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+
+        int bestMove = -1;
+        long bestGames = 0;
+        long bestWins = 0;
+        for (int i = low; i < entries && keyAt(i) == key; i++) {
+            int offset = HEADER_BYTES + i * ENTRY_BYTES;
+            long games = table.getInt(offset + 12);
+            long wins = table.getInt(offset + 16);
+            if (bestMove < 0 || wins * bestGames > bestWins * games
+                    || (wins * bestGames == bestWins * games && games > bestGames)) {
+                bestMove = table.getInt(offset + 8);
+                bestGames = games;
+                bestWins = wins;
+            }
+        }
+        return bestMove;
+    }
+
+    private long keyAt(int index) {
+        return table.getLong(HEADER_BYTES + index * ENTRY_BYTES);
+    }
+
+    /**
+     * Gets the number of (position, move) entries in the book.
+     */
+    public int size() {
+        return entries;
+    }
+
+    /**
+     * Builds a book from the first plies of every game in a log, keeping the
+     * moves that were played at least minGames times.
+     *
+     * @return the number of entries written.
+     */
+    public static int build(Path log, Path book, int maxPlies, int minGames) throws IOException {
+        // key -> move -> { games, wins }
+        Map<Long, Map<Integer, int[]>> stats = new HashMap<>();
+        BitBoard board = new BitBoard();
+        GameRecord record = new GameRecord();
+        long[] keys = new long[GameRecord.MAX_PLIES];
+        int[] moves = new int[GameRecord.MAX_PLIES];
+        try (GameLogReader reader = new GameLogReader(log)) {
+            while (reader.next(record)) {
+                int plies = replay(record, board, keys, moves);
+                if (plies < 0)
+                    continue; // Not a legal game under the current rules
+                // As in GameLogic.isGameFinished, player 1 wins a draw
+                int winner = board.count(0) >= board.count(1) ? 0 : 1;
+                for (int ply = 0; ply < Math.min(plies, maxPlies); ply++) {
+                    int[] moveStats = stats.computeIfAbsent(keys[ply], k -> new HashMap<>())
+                            .computeIfAbsent(moves[ply], m -> new int[2]);
+                    moveStats[0]++;
+                    // No passes: the first player moves on even plies
+                    if (winner == (ply & 1))
+                        moveStats[1]++;
+                }
+            }
+        }
+
+        // Long's natural order is the signed order lookup searches in
+        List<long[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, Map<Integer, int[]>> position : new TreeMap<>(stats).entrySet()) {
+            for (Map.Entry<Integer, int[]> move : new TreeMap<>(position.getValue()).entrySet()) {
+                if (move.getValue()[0] >= minGames)
+                    rows.add(new long[] { position.getKey(), move.getKey(), move.getValue()[0], move.getValue()[1] });
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(book), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(rows.size());
+            for (long[] row : rows) {
+                out.writeLong(row[0]);
+                out.writeInt((int) row[1]);
+                out.writeInt((int) row[2]);
+                out.writeInt((int) row[3]);
+            }
+        }
+        return rows.size();
+    }
+
+    // Plays the record on the board, filling in the key before and the move of every ply.
+    // Returns the number of plies, or -1 if a move is not legal.
+    private static int replay(GameRecord record, BitBoard board, long[] keys, int[] moves) {
+        board.reset();
+        for (int ply = 0; ply < record.getPlies(); ply++) {
+            if (record.isPass(ply))
+                return -1;
+            int square = record.getSquare(ply);
+            int type = record.getType(ply);
+            if ((board.legalMoves() & (1L << square)) == 0 || !board.canPlay(type, board.getSideToMove()))
+                return -1;
+            keys[ply] = board.getKey();
+            moves[ply] = BitBoard.move(square, type);
+            board.play(square, type);
+        }
+        return record.getPlies();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java OpeningBook <games.log> <book> [--plies n] [--min-games n]");
+            return;
+        }
+        int plies = 12;
+        int minGames = 2;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--plies":
+                    plies = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--min-games":
+                    minGames = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        long start = System.nanoTime();
+        int entries = build(Path.of(args[0]), Path.of(args[1]), plies, minGames);
+        System.out.printf("Wrote %d book entries in %.1f s%n", entries, (System.nanoTime() - start) / 1e9);
+    }
+}
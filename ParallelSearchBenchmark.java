@@ -0,0 +1,68 @@
+import java.util.Random;
+
+/**
+ * Measures how the Lazy SMP search of {@link AlphaBetaAI} scales with the number
+ * of threads. For each thread count it searches a fixed set of positions to a
+ * fixed depth, with a fresh transposition table, and reports the time to depth,
+ * the speedup over one thread and the node rate.
+ * <p>
+ * Usage: {@code java ParallelSearchBenchmark [maxThreads] [depth] [positions]}
+ */
+public class ParallelSearchBenchmark {
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 9;
+        int count = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+
+        BitBoard[] positions = new BitBoard[count];
+        Random random = new Random(7);
+        for (int i = 0; i < count; i++)
+            positions[i] = randomPosition(8 + 4 * i, random);
+
+        System.out.printf("%8s %12s %9s %14s%n", "threads", "time ms", "speedup", "nodes/s");
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads = threads < maxThreads && threads * 2 > maxThreads
+                ? maxThreads : threads * 2) {
+            long nanos = 0;
+            long nodes = 0;
+            for (BitBoard position : positions) {
+                AlphaBetaAI ai = new AlphaBetaAI(position.getSideToMove() == 0);
+                ai.setThreads(threads);
+                ai.setDepthLimit(depth);
+                ai.setTimeBudgetMillis(Long.MAX_VALUE / 2_000_000L);
+                long start = System.nanoTime();
+                ai.searchPosition(position);
+                nanos += System.nanoTime() - start;
+                nodes += ai.getLastNodes();
+            }
+            if (threads == 1)
+                baseline = nanos;
+            System.out.printf("%8d %12.1f %9.2f %14.0f%n", threads, nanos / 1e6, baseline / nanos,
+                    nodes * 1e9 / nanos);
+            if (threads == maxThreads)
+                break;
+        }
+    }
+
+    // Plays random moves (special discs included) and backs off if the game ends early
+    static BitBoard randomPosition(int plies, Random random) {
+        BitBoard board = new BitBoard();
+        for (int i = 0; i < plies; i++) {
+            long legal = board.legalMoves();
+            if (legal == 0) {
+                board.undo();
+                break;
+            }
+            for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; skip--)
+                legal &= legal - 1;
+            int type = random.nextInt(4);
+            if (type > BitBoard.UNFLIPPABLE || !board.canPlay(type, board.getSideToMove()))
+                type = BitBoard.SIMPLE;
+            board.play(Long.numberOfTrailingZeros(legal), type);
+        }
+        BitBoard copy = new BitBoard();
+        copy.copyFrom(board);
+        return copy;
+    }
+}
@@ -0,0 +1,158 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Perft: counts the leaf nodes of the full game tree to a fixed depth from the
+ * start position. Every legal square is tried with every disc type the side to
+ * move still has, so the counts also exercise the bomb and unflippable
+ * inventories. There are no passes in this game: as in
+ * {@link GameLogic#isGameFinished()}, a position where the side to move has no
+ * legal move ends the game, and it is counted as a leaf.
+ * <p>
+ * The counts are a correctness oracle for move generators: {@code --verify}
+ * recomputes them through {@link GameLogic#locate_disc} and
+ * {@link GameLogic#undoLastMove()} and compares. Root moves can be split over
+ * several threads.
+ * <p>
+ * Usage: {@code java Perft [depth] [--threads n] [--verify]}
+ */
+public class Perft {
+
+    public static void main(String[] args) throws Exception {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int threads = 1;
+        boolean verify = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--threads"))
+                threads = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--verify"))
+                verify = true;
+            else
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+        }
+        if (verify)
+            AIPlayer.registerAllAIPlayers();
+
+        System.out.printf("%5s %16s %10s %14s%s%n", "depth", "nodes", "ms", "nodes/s", verify ? "  GameLogic" : "");
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long nodes = threads > 1 ? parallelPerft(new BitBoard(), depth, threads) : perft(new BitBoard(), depth);
+            long nanos = System.nanoTime() - start;
+            String check = "";
+            if (verify) {
+                long expected = gameLogicPerft(depth);
+                check = expected == nodes ? "  ok" : "  MISMATCH " + expected;
+            }
+            System.out.printf("%5d %16d %10.1f %14.0f%s%n", depth, nodes, nanos / 1e6, nodes * 1e9 / nanos, check);
+        }
+    }
+
+    /**
+     * Counts the leaves below the board's position to the given depth. The board
+     * is left unchanged.
+     */
+    public static long perft(BitBoard board, int depth) {
+        if (depth == 0)
+            return 1;
+        long legal = board.legalMoves();
+        if (legal == 0)
+            return 1; // Game over
+        int side = board.getSideToMove();
+        if (depth == 1)
+            return (long) Long.bitCount(legal) * typesAvailable(board, side);
+
+        long nodes = 0;
+        for (long bits = legal; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            for (int type = BitBoard.SIMPLE; type <= BitBoard.UNFLIPPABLE; type++) {
+                if (!board.canPlay(type, side))
+                    continue;
+                board.play(square, type);
+                nodes += perft(board, depth - 1);
+                board.undo();
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Same as {@link #perft}, with the root moves spread over a thread pool, each
+     * task working on its own copy of the board.
+     */
+    public static long parallelPerft(BitBoard board, int depth, int threads) throws Exception {
+        long legal = board.legalMoves();
+        if (depth < 2 || legal == 0)
+            return perft(board, depth);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            int side = board.getSideToMove();
+            List<Future<Long>> subtrees = new ArrayList<>();
+            for (long bits = legal; bits != 0; bits &= bits - 1) {
+                int square = Long.numberOfTrailingZeros(bits);
+                for (int type = BitBoard.SIMPLE; type <= BitBoard.UNFLIPPABLE; type++) {
+                    if (!board.canPlay(type, side))
+                        continue;
+                    BitBoard child = new BitBoard();
+                    child.copyFrom(board);
+                    child.play(square, type);
+                    subtrees.add(pool.submit(() -> perft(child, depth - 1)));
+                }
+            }
+            long nodes = 0;
+            for (Future<Long> subtree : subtrees)
+                nodes += subtree.get();
+            return nodes;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int typesAvailable(BitBoard board, int side) {
+        return 1 + (board.canPlay(BitBoard.BOMB, side) ? 1 : 0) + (board.canPlay(BitBoard.UNFLIPPABLE, side) ? 1 : 0);
+    }
+
+    /**
+     * Reference perft through the object-based {@link GameLogic}, playing and
+     * undoing every move through its public API.
+     */
+    static long gameLogicPerft(int depth) {
+        GameLogic logic = new GameLogic();
+        logic.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+        logic.reset();
+        return gameLogicPerft(logic, depth);
+    }
+
+    private static long gameLogicPerft(GameLogic logic, int depth) {
+        if (depth == 0)
+            return 1;
+        Position[] moves = logic.ValidMoves().toArray(new Position[0]);
+        if (moves.length == 0)
+            return 1;
+        Player player = logic.isFirstPlayerTurn() ? logic.getFirstPlayer() : logic.getSecondPlayer();
+        long nodes = 0;
+        for (Position move : moves) {
+            for (int type = BitBoard.SIMPLE; type <= BitBoard.UNFLIPPABLE; type++) {
+                Disc disc;
+                if (type == BitBoard.BOMB) {
+                    if (player.getNumber_of_bombs() <= 0)
+                        continue;
+                    disc = BombDisc.of(player);
+                } else if (type == BitBoard.UNFLIPPABLE) {
+                    if (player.getNumber_of_unflippedable() <= 0)
+                        continue;
+                    disc = UnflippableDisc.of(player);
+                } else {
+                    disc = SimpleDisc.of(player);
+                }
+                if (!logic.locate_disc(move, disc))
+                    throw new IllegalStateException("GameLogic rejected a listed move at " + move);
+                nodes += gameLogicPerft(logic, depth - 1);
+                logic.undoLastMove();
+            }
+        }
+        return nodes;
+    }
+}
@@ -5,9 +5,12 @@ public abstract class Player {
     protected static final int initial_number_of_unflippedable = 2;
     protected int number_of_bombs;
     protected int number_of_unflippedable;
+    // This player's discs: one shared immutable instance per type, indexed by BitBoard.SIMPLE etc.
+    private final Disc[] discs;
 
     public Player(boolean isPlayerOne) {
         this.isPlayerOne = isPlayerOne;
+        this.discs = new Disc[] { new SimpleDisc(this), new BombDisc(this), new UnflippableDisc(this) };
         reset_bombs_and_unflippedable();
         wins = 0;
     }
@@ -70,6 +73,15 @@ public abstract class Player {
         number_of_unflippedable++;
     }
 
+    /**
+     * Gets this player's disc of the given type, one of {@link BitBoard#SIMPLE},
+     * {@link BitBoard#BOMB} and {@link BitBoard#UNFLIPPABLE}. The same instance
+     * is returned every time.
+     */
+    public Disc getDisc(int type) {
+        return discs[type];
+    }
+
     public void reset_bombs_and_unflippedable() {
         this.number_of_bombs = initial_number_of_bombs;
         this.number_of_unflippedable = initial_number_of_unflippedable;
@@ -1,62 +1,35 @@
-
+/**
+ * A square on the board: an immutable (row, col) pair. The coordinates of every
+ * board size share one canonical table, so {@link #of} returns the same object
+ * for the same square and hot paths need not allocate; instances made with the
+ * constructor are still equal to the canonical ones. What sits on a square is
+ * kept by the game, not here.
+ */
 public class Position implements Cloneable {
-    private final int row;
-    private final int col;
-    private Disc disc;
-    private Player player1;
-    private Player player2;
+    // The largest supported board is 32x32
+    static final int MAX_SIZE = 32;
+    private static final Position[] TABLE = new Position[MAX_SIZE * MAX_SIZE];
 
-    public Position(int row, int col, Player player1, Player player2) {
-        this.row = row;
-        this.col = col;
-        this.disc = null;
-        this.player1 = player1;
-        this.player2 = player2;
+    static {
+        for (int square = 0; square < TABLE.length; square++)
+            TABLE[square] = new Position(square / MAX_SIZE, square % MAX_SIZE);
     }
 
+    private final int row;
+    private final int col;
+
     public Position(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
-    // placing a new disc in the position
-    public boolean setDisc(Disc disc) throws OccupiedPositionException {
-        if (this.disc == null) {
-            try {
-                this.disc = disc;
-                return true;
-            } catch (Exception e) {
-                System.out.println(e.getMessage());
-            }
-        }
-        // if position is not empty, returns false
-        throw new OccupiedPositionException("this position is not empty");
-    }
-
-    public boolean removeDisc() {
-        try {
-            this.disc = null;
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
-        }
-        return true;
-    }
-
-    public Disc getDisc() {
-        return this.disc;
-    }
-
-    public boolean flipDisc() throws UnflippableDiscException {
-        try {
-            this.disc.setOwner(disc.getOwner().isPlayerOne ? player2 : player1);
-            return true;
-        } catch (Exception e) {
-            System.out.println(this.row + "," + this.col + "position: " + e.getMessage());
-        }
-        if (disc instanceof UnflippableDisc) {
-            throw new UnflippableDiscException("Cannot change owner of an UnflippableDisc.");
-        }
-        return false;
+    /**
+     * Gets the canonical position of (row, col), for rows and columns from 0 to 31.
+     */
+    public static Position of(int row, int col) {
+        if (row < 0 || row >= MAX_SIZE || col < 0 || col >= MAX_SIZE)
+            throw new IllegalArgumentException("No such square: (" + row + "," + col + ")");
+        return TABLE[row * MAX_SIZE + col];
     }
 
     public int getRow() {
@@ -83,6 +56,12 @@ public class Position implements Cloneable {
         return row == position.row && col == position.col;
     }
 
+    // The square index on the largest board: unique, and cheap to compute
+    @Override
+    public int hashCode() {
+        return row * MAX_SIZE + col;
+    }
+
     public int row() {
         return row;
     }
@@ -91,15 +70,9 @@ public class Position implements Cloneable {
         return col;
     }
 
+    // Positions are immutable, so a clone may as well be the same object
     @Override
     public Position clone() {
-        try {
-            Position clone = (Position) super.clone();
-            // TODO: copy mutable state here, so the clone can't change the internals of the
-            // original
-            return clone;
-        } catch (CloneNotSupportedException e) {
-            throw new AssertionError();
-        }
+        return this;
     }
 }
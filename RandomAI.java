@@ -1,5 +1,6 @@
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
 
 public class RandomAI extends AIPlayer {
     private final Random random = new Random();
@@ -21,17 +22,35 @@ public class RandomAI extends AIPlayer {
         // discs
         int discChoice = random.nextInt(3); // 0: Simple, 1: Bomb, 2: Unflippable
         if (discChoice == 0) {
-            chosenDisc = new SimpleDisc(this);
+            chosenDisc = SimpleDisc.of(this);
         } else if (discChoice == 1 && getNumber_of_bombs() > 0) {
-            chosenDisc = new BombDisc(this);
-            reduce_bomb();
+            chosenDisc = BombDisc.of(this);
         } else if (discChoice == 2 && getNumber_of_unflippedable() > 0) {
-            chosenDisc = new UnflippableDisc(this);
-            reduce_unflippedable();
+            chosenDisc = UnflippableDisc.of(this);
         } else {
             // Default to SimpleDisc if limits reached
-            chosenDisc = new SimpleDisc(this);
+            chosenDisc = SimpleDisc.of(this);
         }
         return new Move(null, chosenDisc, chosenPosition);
     }
+
+    /**
+     * Allocation-free version of {@link #makeMove} for playouts on a BitBoard: a
+     * uniformly random legal square and the same random disc-type choice.
+     *
+     * @return the move code (see {@link BitBoard#move}), or -1 if the side to move
+     *         has no legal move.
+     */
+    static int randomMove(BitBoard board, SplittableRandom random) {
+        long legal = board.legalMoves();
+        if (legal == 0)
+            return -1;
+        for (int skip = random.nextInt(Long.bitCount(legal)); skip > 0; skip--)
+            legal &= legal - 1;
+        // The type codes match discChoice: 0: Simple, 1: Bomb, 2: Unflippable
+        int type = random.nextInt(3);
+        if (!board.canPlay(type, board.getSideToMove()))
+            type = BitBoard.SIMPLE; // Default to SimpleDisc if limits reached
+        return BitBoard.move(Long.numberOfTrailingZeros(legal), type);
+    }
 }
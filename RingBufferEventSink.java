@@ -0,0 +1,171 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link GameListener} that logs events to a file without slowing the game
+ * down. Each event is packed into one {@code long} and put in a lock-free ring
+ * buffer; a daemon thread drains the buffer and writes the events as text
+ * lines. Any number of games (threads) can share one sink. When the buffer is
+ * full, events are dropped and counted rather than blocking the game.
+ */
+public class RingBufferEventSink implements GameListener, Closeable {
+    private static final int MOVE = 1;
+    private static final int FLIP = 2;
+    private static final int BOMBS = 3;
+    private static final int REJECTED = 4;
+    private static final int UNDO = 5;
+    private static final int GAME_OVER = 6;
+    private static final String[] DISC_NAMES = { "SimpleDisc", "BombDisc", "UnflippableDisc" };
+
+    // Bit 63 marks a filled slot, so an empty slot reads as 0
+    private static final long FILLED = 1L << 63;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private final Writer out;
+    private final Thread drainer;
+    private volatile boolean closed;
+
+    /**
+     * Creates a sink writing to the given file, and starts its drain thread.
+     *
+     * @param log2Capacity the buffer holds {@code 2^log2Capacity} events.
+     */
+    public RingBufferEventSink(Path file, int log2Capacity) throws IOException {
+        this.slots = new AtomicLongArray(1 << log2Capacity);
+        this.mask = (1 << log2Capacity) - 1;
+        this.out = Files.newBufferedWriter(file);
+        this.drainer = new Thread(this::drain, "RingBufferEventSink");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    // Layout: filled bit, kind (4 bits at 56), side (55), disc type (2 bits at 53), row and
+    // column (5 bits each at 48 and 43), and two counts (16 bits each at 16 and 0)
+    private static long encode(int kind, Player player, int discType, Position position, int a, int b) {
+        long event = FILLED | (long) kind << 56 | (player.isPlayerOne() ? 0L : 1L << 55) | (long) discType << 53;
+        if (position != null)
+            event |= (long) position.row() << 48 | (long) position.col() << 43;
+        return event | (b & 0xFFFFL) << 16 | (a & 0xFFFFL);
+    }
+
+    private void publish(long event) {
+        long slot;
+        do {
+            slot = tail.get();
+            if (slot - head.get() > mask) {
+                dropped.increment();
+                return;
+            }
+        } while (!tail.compareAndSet(slot, slot + 1));
+        slots.setRelease((int) slot & mask, event);
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                long next = head.get();
+                long event = slots.getAcquire((int) next & mask);
+                if (event == 0) {
+                    if (closed && next == tail.get())
+                        break;
+                    out.flush();
+                    LockSupport.parkNanos(1_000_000L);
+                    continue;
+                }
+                out.write(decode(event));
+                out.write('\n');
+                slots.setRelease((int) next & mask, 0);
+                head.set(next + 1);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String decode(long event) {
+        int kind = (int) (event >>> 56) & 0xF;
+        String player = (event & 1L << 55) == 0 ? "P1" : "P2";
+        String disc = DISC_NAMES[(int) (event >>> 53) & 3];
+        String position = "(" + ((event >>> 48) & 0x1F) + "," + ((event >>> 43) & 0x1F) + ")";
+        int a = (int) event & 0xFFFF;
+        int b = (int) (event >>> 16) & 0xFFFF;
+        switch (kind) {
+            case MOVE:
+                return "move " + player + " " + disc + " " + position + " flips=" + a;
+            case FLIP:
+                return "flip " + player + " " + disc + " " + position;
+            case BOMBS:
+                return "bombs " + player + " exploded=" + a + " flips=" + b;
+            case REJECTED:
+                return "rejected " + player + " " + position;
+            case UNDO:
+                return "undo " + player + " " + position + " flips=" + a;
+            default:
+                return "gameover winner=" + player + " discs=" + a + "-" + b;
+        }
+    }
+
+    @Override
+    public void movePlayed(Player player, Position position, Disc disc, int flips) {
+        publish(encode(MOVE, player, BitBoard.typeOf(disc), position, flips, 0));
+    }
+
+    @Override
+    public void discFlipped(Player player, Position position, Disc disc) {
+        publish(encode(FLIP, player, BitBoard.typeOf(disc), position, 0, 0));
+    }
+
+    @Override
+    public void bombChain(Player player, int bombs, int flips) {
+        publish(encode(BOMBS, player, 0, null, bombs, flips));
+    }
+
+    @Override
+    public void moveRejected(Player player, Position position, String reason) {
+        publish(encode(REJECTED, player, 0, position, 0, 0));
+    }
+
+    @Override
+    public void moveUndone(Player player, Position position, int flips) {
+        publish(encode(UNDO, player, 0, position, flips, 0));
+    }
+
+    @Override
+    public void gameOver(Player winner, int player1Discs, int player2Discs) {
+        publish(encode(GAME_OVER, winner, 0, null, player1Discs, player2Discs));
+    }
+
+    /**
+     * Gets the number of events dropped because the buffer was full.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Writes out the events still in the buffer and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+    }
+}
@@ -1,10 +1,26 @@
-public class SimpleDisc implements Disc, Cloneable {
-    private Player owner;
-    private String type;
+import java.util.Objects;
+
+/**
+ * A plain disc. Discs are immutable and shared: each player owns one instance
+ * of each disc type, returned by {@link #of}, and flipping a disc replaces it
+ * on the board with the other player's instance.
+ */
+public class SimpleDisc implements Disc {
+    private final Player owner;
+    private final String type;
+    private final byte code;
 
     public SimpleDisc(Player owner) {
-        this.owner = owner;
+        this.owner = Objects.requireNonNull(owner, "A disc needs an owner");
         this.type = "⬤";
+        this.code = Disc.code(BitBoard.SIMPLE, owner);
+    }
+
+    /**
+     * Gets the shared simple disc of the given player.
+     */
+    public static SimpleDisc of(Player owner) {
+        return (SimpleDisc) owner.getDisc(BitBoard.SIMPLE);
     }
 
     @Override
@@ -12,9 +28,10 @@ public class SimpleDisc implements Disc, Cloneable {
         return owner;
     }
 
+    @Deprecated
     @Override
     public void setOwner(Player player) {
-        this.owner = player;
+        throw new UnsupportedOperationException("Discs are immutable; use the new owner's disc instead");
     }
 
     @Override
@@ -22,13 +39,15 @@ public class SimpleDisc implements Disc, Cloneable {
         return type;
     }
 
+    @Override
+    public byte getCode() {
+        return code;
+    }
+
+    // Discs are immutable, so a clone may as well be the same object
     @Override
     public SimpleDisc clone() {
-        try {
-            return (SimpleDisc) super.clone(); // Call super.clone()
-        } catch (CloneNotSupportedException e) {
-            throw new RuntimeException(e); // Handle the exception
-        }
+        return this;
     }
 
 }
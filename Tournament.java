@@ -0,0 +1,208 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless AI-vs-AI batch runner. It plays a number of games between two
+ * registered {@link AIPlayer} types on {@link BitboardLogic}, with no GUI and no
+ * console output per move, spread over a pool of worker threads. The two types
+ * alternate playing first. Results are aggregated and can be streamed to a CSV
+ * file with one line per game, and every game's moves can be appended to a
+ * binary game log (see {@link GameLogWriter}), numbered by game as its seed.
+ * With {@code -Dreversi.metrics=true} the engine metrics (see
+ * {@link EngineMetrics}) are published over JMX while the games run and
+ * printed with the results.
+ * <p>
+ * Usage: {@code java Tournament <typeA> <typeB> <games> [--threads n]
+ * [--millis ms] [--out results.csv] [--log games.log] [--book book]}
+ */
+public class Tournament {
+    private final String typeA;
+    private final String typeB;
+    private final long games;
+    private final AtomicLong nextGame = new AtomicLong();
+
+    private final LongAdder winsA = new LongAdder();
+    private final LongAdder winsB = new LongAdder();
+    private final LongAdder discDifferential = new LongAdder();
+    private final LongAdder plies = new LongAdder();
+    private PrintWriter results;
+    private GameLogWriter log;
+
+    public Tournament(String typeA, String typeB, long games) {
+        this.typeA = typeA;
+        this.typeB = typeB;
+        this.games = games;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.out.println("Usage: java Tournament <typeA> <typeB> <games> [--threads n] [--millis ms]"
+                    + " [--out results.csv] [--log games.log] [--book book]");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        String out = null;
+        String log = null;
+        for (int i = 3; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(optionValue(args, ++i));
+                    break;
+                case "--millis":
+                    // Read by the search AIs when they are created
+                    System.setProperty("reversi.searchMillis", optionValue(args, ++i));
+                    break;
+                case "--out":
+                    out = optionValue(args, ++i);
+                    break;
+                case "--log":
+                    log = optionValue(args, ++i);
+                    break;
+                case "--book":
+                    // Loaded by AIPlayer.registerAllAIPlayers
+                    System.setProperty("reversi.openingBook", optionValue(args, ++i));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        AIPlayer.registerAllAIPlayers();
+        Tournament tournament = new Tournament(args[0], args[1], Long.parseLong(args[2]));
+        long start = System.nanoTime();
+        if (log != null)
+            tournament.log = new GameLogWriter(Path.of(log));
+        try {
+            tournament.run(threads, out);
+        } finally {
+            if (tournament.log != null)
+                tournament.log.close();
+        }
+        tournament.printSummary(System.nanoTime() - start);
+    }
+
+    // The value of the option before index i, which must be there
+    private static String optionValue(String[] args, int i) {
+        if (i >= args.length)
+            throw new IllegalArgumentException("Missing value for option: " + args[i - 1]);
+        return args[i];
+    }
+
+    private void run(int threads, String out) throws Exception {
+        if (out != null) {
+            try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(out), 1 << 16))) {
+                results = writer;
+                writer.println("game,first,second,firstDiscs,secondDiscs,winner,plies");
+                run(threads);
+            }
+        } else {
+            run(threads);
+        }
+    }
+
+    /**
+     * Plays all games on the given number of threads and waits for them.
+     */
+    public void run(int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] workers = new Future<?>[threads];
+            for (int i = 0; i < threads; i++)
+                workers[i] = pool.submit(() -> {
+                    playGames();
+                    return null;
+                });
+            for (Future<?> worker : workers)
+                worker.get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // One worker: its own players (reused across games) and its own engine
+    private void playGames() throws IOException {
+        AIPlayer aFirst = AIPlayer.createAIPlayer(typeA, true);
+        AIPlayer bSecond = AIPlayer.createAIPlayer(typeB, false);
+        AIPlayer bFirst = AIPlayer.createAIPlayer(typeB, true);
+        AIPlayer aSecond = AIPlayer.createAIPlayer(typeA, false);
+        BitboardLogic logic = new BitboardLogic(aFirst, bSecond);
+        GameRecord record = log == null ? null : new GameRecord();
+
+        for (long game = nextGame.getAndIncrement(); game < games; game = nextGame.getAndIncrement()) {
+            boolean aStarts = game % 2 == 0;
+            logic.setPlayers(aStarts ? aFirst : bFirst, aStarts ? bSecond : aSecond);
+            logic.reset();
+            if (record != null)
+                record.start(aStarts ? typeA : typeB, aStarts ? typeB : typeA, (int) game);
+            int ply = playGame(logic, record);
+            if (record != null)
+                log.append(record);
+
+            BitBoard board = logic.getBitBoard();
+            int first = board.count(0);
+            int second = board.count(1);
+            // As in GameLogic.isGameFinished, the first player wins a draw
+            boolean firstWins = first >= second;
+            if (firstWins == aStarts)
+                winsA.increment();
+            else
+                winsB.increment();
+            discDifferential.add(aStarts ? first - second : second - first);
+            plies.add(ply);
+
+            if (results != null) {
+                String line = game + "," + (aStarts ? typeA : typeB) + "," + (aStarts ? typeB : typeA) + ","
+                        + first + "," + second + "," + (firstWins ? "first" : "second") + "," + ply;
+                synchronized (results) {
+                    results.println(line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays one game to the end and returns the number of plies.
+     */
+    static int playGame(PlayableLogic logic) {
+        return playGame(logic, null);
+    }
+
+    /**
+     * Plays one game to the end, appending its moves to the record if it is not
+     * null, and returns the number of plies.
+     */
+    static int playGame(PlayableLogic logic, GameRecord record) {
+        int ply = 0;
+        while (!logic.isGameFinished()) {
+            AIPlayer current = (AIPlayer) (logic.isFirstPlayerTurn() ? logic.getFirstPlayer()
+                    : logic.getSecondPlayer());
+            Move move = current.timedMove(logic);
+            if (move == null || !logic.locate_disc(move.position(), move.disc()))
+                throw new IllegalStateException(current.getClass().getSimpleName() + " made an illegal move");
+            if (record != null)
+                record.add(BitBoard.square(move.position().row(), move.position().col()), BitBoard.typeOf(move.disc()));
+            ply++;
+        }
+        return ply;
+    }
+
+    private void printSummary(long nanos) {
+        long played = winsA.sum() + winsB.sum();
+        System.out.printf("%d games in %.1f s (%.0f games/s, %.0f plies/s)%n", played, nanos / 1e9,
+                played * 1e9 / nanos, plies.sum() * 1e9 / nanos);
+        System.out.printf("%s wins: %d (%.1f%%)%n", typeA, winsA.sum(), 100.0 * winsA.sum() / played);
+        System.out.printf("%s wins: %d (%.1f%%)%n", typeB, winsB.sum(), 100.0 * winsB.sum() / played);
+        System.out.printf("Average disc differential (%s - %s): %.2f%n", typeA, typeB,
+                (double) discDifferential.sum() / played);
+        if (EngineMetrics.ENABLED)
+            System.out.println(EngineMetrics.report());
+    }
+}
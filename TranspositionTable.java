@@ -0,0 +1,79 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size hash table from {@link Zobrist} keys to search results. Each
+ * entry is two {@code long}s: the key and a packed data word holding the score,
+ * the depth it was searched to, the bound type and the best move.
+ * <p>
+ * The table is safe to share between search threads without locking: the key
+ * word is stored XOR-ed with the data word, so an entry torn by two concurrent
+ * writers no longer matches its key and simply reads as a miss.
+ */
+public final class TranspositionTable {
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    private static final long VALID = 1L << 63;
+
+    private final AtomicLongArray keys;
+    private final AtomicLongArray data;
+    private final int mask;
+
+    /**
+     * @param log2Entries the table holds {@code 2^log2Entries} entries.
+     */
+    public TranspositionTable(int log2Entries) {
+        keys = new AtomicLongArray(1 << log2Entries);
+        data = new AtomicLongArray(1 << log2Entries);
+        mask = (1 << log2Entries) - 1;
+    }
+
+    /**
+     * Returns the packed data stored for the key, or 0 if there is none.
+     */
+    public long probe(long key) {
+        int index = (int) key & mask;
+        long entry = data.getOpaque(index);
+        return (keys.getOpaque(index) ^ entry) == key ? entry : 0;
+    }
+
+    public void store(long key, int depth, int bound, int score, int move) {
+        int index = (int) key & mask;
+        // Keep a deeper result for the same position
+        long old = data.getOpaque(index);
+        if ((keys.getOpaque(index) ^ old) == key && depth(old) > depth)
+            return;
+        long entry = VALID | (score & 0xFFFFFFFFL) | (long) depth << 32 | (long) bound << 40
+                | (long) (move & 0xFF) << 42;
+        keys.setOpaque(index, key ^ entry);
+        data.setOpaque(index, entry);
+    }
+
+    public void clear() {
+        for (int i = 0; i <= mask; i++) {
+            keys.setOpaque(i, 0);
+            data.setOpaque(i, 0);
+        }
+    }
+
+    public static int score(long data) {
+        return (int) data;
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> 32) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> 40) & 3;
+    }
+
+    /**
+     * The stored best move code, or -1 if none was recorded.
+     */
+    public static int move(long data) {
+        int move = (int) (data >>> 42) & 0xFF;
+        return move == 0xFF ? -1 : move;
+    }
+}
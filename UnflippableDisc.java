@@ -1,29 +1,50 @@
-public class UnflippableDisc implements Disc, Cloneable {
+import java.util.Objects;
+
+/**
+ * A disc that can never be flipped. Discs are immutable and shared, see
+ * {@link SimpleDisc}.
+ */
+public class UnflippableDisc implements Disc {
     private final Player owner;
     private final String type;
+    private final byte code;
 
     public UnflippableDisc(Player owner) {
-        this.owner = owner;
+        this.owner = Objects.requireNonNull(owner, "A disc needs an owner");
         this.type = "⭕";
+        this.code = Disc.code(BitBoard.UNFLIPPABLE, owner);
+    }
+
+    /**
+     * Gets the shared unflippable disc of the given player.
+     */
+    public static UnflippableDisc of(Player owner) {
+        return (UnflippableDisc) owner.getDisc(BitBoard.UNFLIPPABLE);
     }
 
     @Override
     public Player getOwner() {return owner;}
 
+    @Deprecated
     @Override
-    public void setOwner(Player player){};
+    public void setOwner(Player player) {
+        throw new UnsupportedOperationException("Discs are immutable; use the new owner's disc instead");
+    }
+
     @Override
     public String getType() {
         return type;
     }
+
+    @Override
+    public byte getCode() {
+        return code;
+    }
+
+    // Discs are immutable, so a clone may as well be the same object
     @Override
     public UnflippableDisc clone() {
-        try {
-            return (UnflippableDisc) super.clone(); // Call super.clone()
-        } catch (CloneNotSupportedException e) {
-            throw new RuntimeException(e); // Handle the exception
-        }
+        return this;
     }
 
 }
-
@@ -0,0 +1,64 @@
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for 64-bit Zobrist hashing of a full game state: owner and type
+ * of the disc on every square, the side to move, and both players' remaining
+ * bombs and unflippable discs. The keys come from a fixed seed, so a position
+ * hashes to the same value in every run and in every engine ({@link GameLogic}
+ * and {@link BitBoard} agree on 8x8 boards), which makes them safe to persist.
+ * <p>
+ * Squares are indexed {@code row * boardSize + col}. Sides are 0 for player 1
+ * and 1 for player 2; types are {@link BitBoard#SIMPLE}, {@link BitBoard#BOMB}
+ * and {@link BitBoard#UNFLIPPABLE}.
+ */
+public final class Zobrist {
+    public static final int MAX_SQUARES = 32 * 32;
+
+    private static final long[] DISC = new long[2 * 3 * MAX_SQUARES];
+    private static final long[] FLIP = new long[3 * MAX_SQUARES];
+    private static final long[] BOMBS = new long[2 * (Player.initial_number_of_bombs + 1)];
+    private static final long[] UNFLIPPABLES = new long[2 * (Player.initial_number_of_unflippedable + 1)];
+    private static final long SECOND_PLAYER_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_2E7E_251L);
+        for (int i = 0; i < DISC.length; i++)
+            DISC[i] = random.nextLong();
+        for (int type = 0; type < 3; type++) {
+            for (int square = 0; square < MAX_SQUARES; square++) {
+                FLIP[type * MAX_SQUARES + square] = disc(0, type, square) ^ disc(1, type, square);
+            }
+        }
+        for (int i = 0; i < BOMBS.length; i++)
+            BOMBS[i] = random.nextLong();
+        for (int i = 0; i < UNFLIPPABLES.length; i++)
+            UNFLIPPABLES[i] = random.nextLong();
+        SECOND_PLAYER_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    public static long disc(int side, int type, int square) {
+        return DISC[(side * 3 + type) * MAX_SQUARES + square];
+    }
+
+    /**
+     * The key change when the disc on the square changes owner.
+     */
+    public static long flip(int type, int square) {
+        return FLIP[type * MAX_SQUARES + square];
+    }
+
+    public static long bombs(int side, int count) {
+        return BOMBS[side * (Player.initial_number_of_bombs + 1) + count];
+    }
+
+    public static long unflippables(int side, int count) {
+        return UNFLIPPABLES[side * (Player.initial_number_of_unflippedable + 1) + count];
+    }
+
+    public static long sideToMove(int side) {
+        return side == 0 ? 0 : SECOND_PLAYER_TO_MOVE;
+    }
+}